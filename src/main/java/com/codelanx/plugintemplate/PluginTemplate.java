@@ -20,13 +20,23 @@
 package com.codelanx.plugintemplate;
 
 import com.codelanx.plugintemplate.command.CommandHandler;
+import com.codelanx.plugintemplate.command.CommandNode;
+import com.codelanx.plugintemplate.config.ConfigListener;
+import com.codelanx.plugintemplate.config.ConfigSnapshot;
 import com.codelanx.plugintemplate.config.ConfigValues;
 import com.codelanx.plugintemplate.config.ConfigurationLoader;
+import com.codelanx.plugintemplate.listener.HandlerProfile;
 import com.codelanx.plugintemplate.listener.ListenerManager;
+import com.codelanx.plugintemplate.logging.DebugLogger;
+import com.codelanx.plugintemplate.metrics.LatencyPlotter;
 import com.codelanx.plugintemplate.metrics.Metrics;
+import com.codelanx.plugintemplate.scheduler.TickBudgetExecutor;
 import com.codelanx.plugintemplate.update.Choice;
 import com.codelanx.plugintemplate.update.UpdateHandler;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -47,7 +57,10 @@ public class PluginTemplate extends JavaPlugin {
     private ConfigurationLoader cloader;
     private ListenerManager listener;
     private UpdateHandler update;
-    private final byte debug = 3; //TODO: load from config
+    private Metrics metrics;
+    private TickBudgetExecutor tasks;
+    /** Applies changes to the debug level and update options */
+    private ConfigListener reloader;
 
     /**
      * Loads informational and configurable aspects of {@link PluginTemplate}
@@ -61,6 +74,7 @@ public class PluginTemplate extends JavaPlugin {
         
         this.getLogger().log(Level.INFO, "Loading configuration...");
         this.cloader = new ConfigurationLoader(this);
+        DebugLogger.start(this.getLogger(), this.cloader.getInt(ConfigValues.DEBUG_LEVEL));
     }
 
     /**
@@ -72,9 +86,9 @@ public class PluginTemplate extends JavaPlugin {
     @Override
     public void onEnable() {
         try {
-            Metrics metrics = new Metrics(this);
+            this.metrics = new Metrics(this);
             this.getLogger().log(Level.INFO, "Enabling Metrics...");
-            metrics.start();
+            this.metrics.start();
         } catch (IOException ex) {
             this.getLogger().log(Level.SEVERE, "Error enabling metrics!", ex);
         }
@@ -82,14 +96,61 @@ public class PluginTemplate extends JavaPlugin {
         this.getLogger().log(Level.INFO, "Enabling listeners...");
         this.listener = new ListenerManager(this);
         
+        this.tasks = new TickBudgetExecutor(this);
+        
         this.getLogger().log(Level.INFO, "Enabling command handler...");
         this.chandle = new CommandHandler(this);
+        if (this.metrics != null) {
+            Metrics.Graph graph = this.metrics.createGraph("Command Latency p99 us");
+            for (CommandNode node : this.chandle.getCommandNodes()) {
+                graph.addPlotter(new LatencyPlotter(node.getPath(), node.getTimings(), 0.99D));
+            }
+            this.metrics.addGraph(new Metrics.Graph("Listener Latency p99 us") {
+
+                // handlers come and go with toggles and conditions, so plot whatever is registered now
+                @Override
+                public Set<Metrics.Plotter> getPlotters() {
+                    Set<Metrics.Plotter> back = new LinkedHashSet<Metrics.Plotter>();
+                    for (HandlerProfile profile : listener.getProfiles()) {
+                        back.add(new LatencyPlotter(profile.getName() + " " + profile.getEventType().getSimpleName(),
+                                profile.getTimings(), 0.99D));
+                    }
+                    return Collections.unmodifiableSet(back);
+                }
+
+            });
+        }
         
         this.getLogger().log(Level.INFO, "Evaluating update checks...");
-        boolean check = this.cloader.getBoolean(ConfigValues.UPDATE_CHECK);
-        boolean dl = this.cloader.getBoolean(ConfigValues.UPDATE_DOWNLOAD);
+        this.runUpdateCheck(this.cloader.getSnapshot());
+        
+        this.reloader = new ConfigListener() {
+
+            public void onConfigChange(ConfigSnapshot snapshot, Set<ConfigValues> changed) {
+                DebugLogger.setLevel(snapshot.getInt(ConfigValues.DEBUG_LEVEL));
+                if (changed.contains(ConfigValues.UPDATE_CHECK) || changed.contains(ConfigValues.UPDATE_DOWNLOAD)) {
+                    runUpdateCheck(snapshot);
+                }
+            }
+
+        };
+        this.cloader.subscribe(this.reloader, this.chandle.getMainThreadExecutor(),
+                ConfigValues.DEBUG_LEVEL, ConfigValues.UPDATE_CHECK, ConfigValues.UPDATE_DOWNLOAD);
+    }
+
+    /**
+     * Creates an {@link UpdateHandler} for the configured update options and
+     * runs its check
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param snapshot The configuration to read the options from
+     */
+    private void runUpdateCheck(ConfigSnapshot snapshot) {
+        boolean check = snapshot.getBoolean(ConfigValues.UPDATE_CHECK);
+        boolean dl = snapshot.getBoolean(ConfigValues.UPDATE_DOWNLOAD);
         this.update = new UpdateHandler(this, Choice.getChoice(check, dl), this.ID, this.getFile().getName());
-        this.update.setDebug(this.debug);
         this.update.runCheck();
     }
 
@@ -101,7 +162,12 @@ public class PluginTemplate extends JavaPlugin {
      */
     @Override
     public void onDisable() {
+        this.cloader.unsubscribe(this.reloader);
         this.listener.cleanup();
+        this.tasks.cleanup();
+        this.chandle.cleanup();
+        this.cloader.cleanup();
+        DebugLogger.stop();
     }
 
     /**
@@ -162,6 +228,18 @@ public class PluginTemplate extends JavaPlugin {
         return this.listener;
     }
     
+    /**
+     * Gets the {@link TickBudgetExecutor} for {@link PluginTemplate}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The {@link TickBudgetExecutor} instance
+     */
+    public TickBudgetExecutor getTaskExecutor() {
+        return this.tasks;
+    }
+    
     /**
      * Gets the {@link UpdateHandler} for {@link PluginTemplate}
      * 
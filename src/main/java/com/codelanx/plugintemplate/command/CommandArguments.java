@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import com.codelanx.plugintemplate.command.args.ArgumentType;
+import com.codelanx.plugintemplate.command.args.DoubleArgument;
+import com.codelanx.plugintemplate.command.args.DurationArgument;
+import com.codelanx.plugintemplate.command.args.IntArgument;
+import java.util.Arrays;
+
+/**
+ * A read-only view over a slice of the raw argument array handed to
+ * {@link CommandHandler} by Bukkit. Creating a view never copies the
+ * underlying array, so resolving nested subcommands only moves an offset.
+ * Typed getters record the first parse failure of an execution, which
+ * {@link CommandHandler} reports alongside the usage message.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class CommandArguments {
+
+    /** Shared empty argument array */
+    private static final String[] EMPTY = new String[0];
+    /** The original, unmodified argument array */
+    private final String[] raw;
+    /** Index of the first argument visible through this view */
+    private final int offset;
+    /** Number of arguments visible through this view */
+    private final int length;
+    /** Index of the first argument that failed to parse, -1 if none */
+    private int errorIndex = -1;
+    /** Type the failed argument was parsed as */
+    private ArgumentType<?> errorType;
+
+    /**
+     * {@link CommandArguments} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param raw The original argument array
+     * @param offset The index of the first visible argument
+     */
+    public CommandArguments(String[] raw, int offset) {
+        this(raw, offset, raw.length - offset);
+    }
+
+    /**
+     * {@link CommandArguments} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param raw The original argument array
+     * @param offset The index of the first visible argument
+     * @param length The number of visible arguments
+     */
+    public CommandArguments(String[] raw, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > raw.length) {
+            throw new IndexOutOfBoundsException("Invalid slice [" + offset + ", "
+                    + (offset + length) + ") of " + raw.length + " arguments");
+        }
+        this.raw = raw;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the number of arguments in this view
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The argument count
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns whether or not this view holds no arguments
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return <code>true</code> if there are no arguments
+     */
+    public boolean isEmpty() {
+        return this.length == 0;
+    }
+
+    /**
+     * Returns the argument at the relevant index of this view
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index, relative to the start of this view
+     * @return The argument at that index
+     * @throws IndexOutOfBoundsException If the index is outside of this view
+     */
+    public String get(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + this.length);
+        }
+        return this.raw[this.offset + index];
+    }
+
+    /**
+     * Returns the argument at the relevant index, or a default value if the
+     * view does not hold that many arguments
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index, relative to the start of this view
+     * @param def The value to return if the index is out of range
+     * @return The argument at that index, or the default value
+     */
+    public String get(int index, String def) {
+        return index >= 0 && index < this.length ? this.raw[this.offset + index] : def;
+    }
+
+    /**
+     * Parses an argument as a typed value. Parsing never throws; on failure
+     * the error is recorded for the usage message and null is returned.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param <T> The parsed type
+     * @param index The index, relative to the start of this view
+     * @param type The {@link ArgumentType} to parse as
+     * @return The parsed value, or null if missing or invalid
+     */
+    public <T> T get(int index, ArgumentType<T> type) {
+        if (index < 0 || index >= this.length) {
+            return null;
+        }
+        T back = type.parse(this.raw[this.offset + index]);
+        if (back == null) {
+            this.fail(index, type);
+        }
+        return back;
+    }
+
+    /**
+     * Parses an argument as an integer without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index, relative to the start of this view
+     * @param type The {@link IntArgument} holding the accepted range
+     * @param def The value to return if the argument is absent
+     * @return The value, the default if absent, or 0 if invalid
+     */
+    public int getInt(int index, IntArgument type, int def) {
+        if (index < 0 || index >= this.length) {
+            return def;
+        }
+        long back = type.parseInt(this.raw[this.offset + index]);
+        if (back == IntArgument.INVALID) {
+            this.fail(index, type);
+            return 0;
+        }
+        return (int) back;
+    }
+
+    /**
+     * Parses an argument as an integer without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index, relative to the start of this view
+     * @param def The value to return if the argument is absent
+     * @return The value, the default if absent, or 0 if invalid
+     */
+    public int getInt(int index, int def) {
+        return this.getInt(index, IntArgument.ANY, def);
+    }
+
+    /**
+     * Parses an argument as a decimal number without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index, relative to the start of this view
+     * @param def The value to return if the argument is absent
+     * @return The value, the default if absent, or 0 if invalid
+     */
+    public double getDouble(int index, double def) {
+        if (index < 0 || index >= this.length) {
+            return def;
+        }
+        double back = DoubleArgument.ANY.parseDouble(this.raw[this.offset + index]);
+        if (Double.isNaN(back)) {
+            this.fail(index, DoubleArgument.ANY);
+            return 0;
+        }
+        return back;
+    }
+
+    /**
+     * Parses an argument as a duration without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index, relative to the start of this view
+     * @param def The value to return if the argument is absent
+     * @return The duration in milliseconds, the default if absent, or 0 if
+     *         invalid
+     */
+    public long getDuration(int index, long def) {
+        if (index < 0 || index >= this.length) {
+            return def;
+        }
+        long back = DurationArgument.ANY.parseMillis(this.raw[this.offset + index]);
+        if (back == DurationArgument.INVALID) {
+            this.fail(index, DurationArgument.ANY);
+            return 0;
+        }
+        return back;
+    }
+
+    /**
+     * Returns whether or not any argument failed to parse
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true if a parse error was recorded
+     */
+    public boolean hasError() {
+        return this.errorIndex >= 0;
+    }
+
+    /**
+     * Returns the message of the first argument that failed to parse
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The error message, or null if every argument parsed
+     */
+    public String getError() {
+        if (this.errorIndex < 0) {
+            return null;
+        }
+        return this.errorType.getError(this.raw[this.offset + this.errorIndex]);
+    }
+
+    /**
+     * Records a parse failure, keeping the first one
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The failed index
+     * @param type The type it was parsed as
+     */
+    private void fail(int index, ArgumentType<?> type) {
+        if (this.errorIndex < 0) {
+            this.errorIndex = index;
+            this.errorType = type;
+        }
+    }
+
+    /**
+     * Returns a view of the arguments following the relevant index. The
+     * underlying array is shared, not copied.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param from The index to start the new view at
+     * @return A new view starting at the provided index
+     */
+    public CommandArguments slice(int from) {
+        return this.slice(from, this.length);
+    }
+
+    /**
+     * Returns a view of the arguments in the range {@code [from, to)}. The
+     * underlying array is shared, not copied.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param from The index to start the new view at, inclusive
+     * @param to The index to end the new view at, exclusive
+     * @return A new view over the provided range
+     */
+    public CommandArguments slice(int from, int to) {
+        if (from < 0 || to > this.length || from > to) {
+            throw new IndexOutOfBoundsException("Invalid slice [" + from + ", " + to + ") of " + this.length + " arguments");
+        }
+        return new CommandArguments(this.raw, this.offset + from, to - from);
+    }
+
+    /**
+     * Copies the arguments in this view into a new array. Only intended for
+     * code that must hand the arguments to an API expecting an array.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return A copy of the visible arguments
+     */
+    public String[] toArray() {
+        if (this.length == 0) {
+            return CommandArguments.EMPTY;
+        }
+        return Arrays.copyOfRange(this.raw, this.offset, this.offset + this.length);
+    }
+
+    /**
+     * Joins the visible arguments with a single space
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The joined arguments
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(this.raw[this.offset + i]);
+        }
+        return sb.toString();
+    }
+
+}
@@ -20,15 +20,34 @@
 package com.codelanx.plugintemplate.command;
 
 import static com.codelanx.plugintemplate.PluginTemplate.__;
-import com.codelanx.plugintemplate.command.commands.*;
 import com.codelanx.plugintemplate.command.commands.SubCommand;
 import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.config.ConfigListener;
+import com.codelanx.plugintemplate.config.ConfigSnapshot;
+import com.codelanx.plugintemplate.config.ConfigValues;
+import com.codelanx.plugintemplate.scheduler.MainThreadExecutor;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 
 /**
  * Manages commands abstractly for the plugin
@@ -37,12 +56,32 @@ import org.bukkit.command.CommandSender;
  * @author 1Rogue
  * @version 1.4.2
  */
-public class CommandHandler implements CommandExecutor {
+public class CommandHandler implements CommandExecutor, TabCompleter {
 
     /** Private {$link PluginTemplate} instance */
     private final PluginTemplate plugin;
-    /** Private {@link HashMap} of subcommands */
-    private final Map<String, SubCommand> commands = new HashMap<String, SubCommand>();
+    /** Root of the command trie, its children are the bukkit-level commands */
+    private final CommandNode root = new CommandNode("", null);
+    /** Tab-completion index over {@link #root} */
+    private final CompletionIndex completions = new CompletionIndex(this.root);
+    /** Rendered help pages over {@link #root} */
+    private final HelpIndex help = new HelpIndex(this.root);
+    /** Flat {@link List} of every registered {@link SubCommand} */
+    private volatile List<SubCommand> commands = Collections.emptyList();
+    /** Flat {@link List} of every {@link CommandNode} holding a command */
+    private volatile List<CommandNode> nodes = Collections.emptyList();
+    /** Worker pool for asynchronous {@link SubCommand} bodies */
+    private final ThreadPoolExecutor workers;
+    /** Executor for hopping back onto the server thread */
+    private final MainThreadExecutor mainThread;
+    /** Every {@link RateLimiter} in use, for idle bucket eviction */
+    private volatile List<RateLimiter> limiters = Collections.emptyList();
+    /** Task evicting idle rate limit buckets */
+    private final BukkitTask evictor;
+    /** Resizes {@link #workers} and rebuilds rate limits on reload */
+    private final ConfigListener tuner;
+    /** Paths of every command used since enable, touched on the server thread */
+    private final Set<String> used = new HashSet<String>();
 
     /**
      * {@link CommandHandler} constructor
@@ -54,20 +93,96 @@ public class CommandHandler implements CommandExecutor {
      */
     public CommandHandler(PluginTemplate plugin) {
         this.plugin = plugin;
+        this.mainThread = new MainThreadExecutor(plugin);
+        int threads = Math.max(1, this.plugin.getConfiguration().getInt(ConfigValues.COMMAND_ASYNC_THREADS));
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PluginTemplate-Command-" + this.count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+
+        });
         
-        SubCommand[] cmds = new SubCommand[] {
-            new HelpCommand(this.plugin)
+        this.evictor = this.plugin.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, new Runnable() {
+
+            public void run() {
+                for (RateLimiter limiter : limiters) {
+                    limiter.evictIdle();
+                }
+            }
+
+        }, 1200L, 1200L);
+        
+        this.tuner = new ConfigListener() {
+
+            public void onConfigChange(ConfigSnapshot snapshot, Set<ConfigValues> changed) {
+                if (changed.contains(ConfigValues.COMMAND_ASYNC_THREADS)) {
+                    resizeWorkers(Math.max(1, snapshot.getInt(ConfigValues.COMMAND_ASYNC_THREADS)));
+                }
+                if (changed.contains(ConfigValues.COMMAND_RATE_BURST)
+                        || changed.contains(ConfigValues.COMMAND_RATE_PERIOD)
+                        || changed.contains(ConfigValues.COMMAND_RATE_OVERRIDES)) {
+                    rebuildRateLimiters();
+                }
+            }
+
         };
+        this.plugin.getConfiguration().subscribe(this.tuner, this.mainThread,
+                ConfigValues.COMMAND_ASYNC_THREADS, ConfigValues.COMMAND_RATE_BURST,
+                ConfigValues.COMMAND_RATE_PERIOD, ConfigValues.COMMAND_RATE_OVERRIDES);
         
-        final CommandHandler chand = this;
-        for (SubCommand cmd : cmds) {
-            this.commands.put(cmd.getName(), cmd);
-            this.plugin.getCommand(cmd.getName()).setExecutor(chand);
+        GeneratedCommands.register(this, this.plugin);
+    }
+
+    /**
+     * Changes the number of worker threads for asynchronous commands. Work
+     * already queued is kept.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param threads The new number of threads
+     */
+    private void resizeWorkers(int threads) {
+        if (threads > this.workers.getMaximumPoolSize()) {
+            this.workers.setMaximumPoolSize(threads);
+            this.workers.setCorePoolSize(threads);
+        } else {
+            this.workers.setCorePoolSize(threads);
+            this.workers.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Replaces the {@link RateLimiter} of every command with one built from
+     * the current configuration. Buckets of the old limiters are discarded.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void rebuildRateLimiters() {
+        List<RateLimiter> all = new ArrayList<RateLimiter>();
+        for (CommandNode node : this.nodes) {
+            RateLimiter limiter = this.createRateLimiter(node.getPath());
+            node.setRateLimiter(limiter);
+            if (limiter != null) {
+                all.add(limiter);
+            }
         }
+        this.limiters = Collections.unmodifiableList(all);
     }
 
     /**
-     * Executes the proper {@link SubCommand}
+     * Executes the proper {@link SubCommand}. Arguments matching nested
+     * subcommands are consumed, and the rest are handed over as a view of
+     * the original array. Asynchronous commands are handed to the worker
+     * pool, and their usage message is sent from the server thread once they
+     * complete.
      *
      * @since 1.3.0
      * @version 1.4.2
@@ -81,24 +196,311 @@ public class CommandHandler implements CommandExecutor {
      */
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String commandLabel, String[] args) {
-        SubCommand command = this.getCommand(cmd.getName());
+        CommandNode node = this.root.getExactChild(cmd.getName());
+        if (node == null) {
+            return false;
+        }
+        int depth = 0;
+        while (depth < args.length) {
+            CommandNode next = node.getChild(args[depth]);
+            if (next == null) {
+                break;
+            }
+            node = next;
+            depth++;
+        }
+        SubCommand command = node.getCommand();
         if (command != null) {
-            String[] newArgs = new String[args.length - 1];
-            for (int i = 0; i < newArgs.length; i++) {
-                newArgs[i] = args[i + 1];
+            if (node.getPermission() != null && !sender.hasPermission(node.getPermission())) {
+                sender.sendMessage(__("&cYou do not have permission to use this command"));
+                return true;
             }
-            if (command.execute(sender, newArgs)) {
+            RateLimiter limiter = node.getRateLimiter();
+            if (limiter != null && sender instanceof Player && !sender.hasPermission("plugintemplate.ratelimit.bypass")) {
+                long wait = limiter.tryAcquire(((Player) sender).getUniqueId());
+                if (wait > 0) {
+                    sender.sendMessage(__(String.format("&cPlease wait %.1f seconds before using this command again", wait / 1e9D)));
+                    return true;
+                }
+            }
+            if (this.used.add(node.getPath())) {
+                this.plugin.getListenerManager().checkConditions();
+            }
+            CommandArguments view = new CommandArguments(args, depth);
+            if (node.isAsync()) {
+                this.executeAsync(sender, node, view);
+                return true;
+            }
+            long start = System.nanoTime();
+            boolean success = command.execute(sender, view);
+            node.getTimings().record(System.nanoTime() - start);
+            if (success) {
                 return true;
             } else {
-                sender.sendMessage(__("Usage: " + command.helpInfo()[0]));
-                sender.sendMessage(__(command.helpInfo()[1]));
+                this.sendUsage(sender, node, view);
             }
         }
         return false;
     }
+
+    /**
+     * Completes the last argument from the precomputed {@link CompletionIndex}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender completing the command
+     * @param cmd The command instance
+     * @param alias The alias used
+     * @param args The arguments typed so far, the last being completed
+     * @return An unmodifiable {@link List} of candidates, or null to let
+     *         bukkit complete player names
+     */
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command cmd, String alias, String[] args) {
+        return this.completions.complete(sender, cmd.getName(), args);
+    }
+
+    /**
+     * Makes tab completion re-check a sender's permissions on the next
+     * keystroke, rather than up to a second later. Call this after changing
+     * a sender's permissions.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender whose permissions changed
+     */
+    public void invalidateCompletions(CommandSender sender) {
+        this.completions.invalidate(sender);
+    }
+
+    /**
+     * Runs a {@link SubCommand} on the worker pool. The returned future
+     * completes on the server thread, after the usage message has been sent
+     * for an unsuccessful execution.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The command executor
+     * @param node The {@link CommandNode} of the command to run
+     * @param args The command arguments
+     * @return A {@link CompletableFuture} of the command's success
+     */
+    public CompletableFuture<Boolean> executeAsync(final CommandSender sender, final CommandNode node, final CommandArguments args) {
+        final CompletableFuture<Boolean> back = new CompletableFuture<Boolean>();
+        CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+
+            public Boolean get() {
+                long start = System.nanoTime();
+                try {
+                    return node.getCommand().execute(sender, args);
+                } finally {
+                    node.getTimings().record(System.nanoTime() - start);
+                }
+            }
+
+        }, this.workers).whenCompleteAsync(new BiConsumer<Boolean, Throwable>() {
+
+            public void accept(Boolean success, Throwable ex) {
+                if (ex != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Error executing command: " + node.getPath(), ex);
+                    sender.sendMessage(__("&cAn internal error occurred while executing this command"));
+                    back.completeExceptionally(ex);
+                    return;
+                }
+                if (!success) {
+                    sendUsage(sender, node, args);
+                }
+                back.complete(success);
+            }
+
+        }, this.mainThread);
+        return back;
+    }
+
+    /**
+     * Sends the usage information of a command to a sender, preceded by the
+     * first argument that failed to parse
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender to inform
+     * @param node The {@link CommandNode} that was used incorrectly
+     * @param args The arguments of the failed execution
+     */
+    private void sendUsage(CommandSender sender, CommandNode node, CommandArguments args) {
+        MessageBuffer out = new MessageBuffer(sender);
+        if (args.hasError()) {
+            out.line("&c" + args.getError());
+        }
+        out.line("Usage: " + node.getUsage()).line(node.getDescription()).flush();
+    }
+
+    /**
+     * Registers a top-level {@link SubCommand}, and attaches this handler as
+     * the executor of the bukkit command of the same name
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param cmd The {@link SubCommand} to register
+     * @throws CommandReregisterException If the name or an alias is taken
+     */
+    public void registerCommand(SubCommand cmd) throws CommandReregisterException {
+        this.registerCommand(null, cmd);
+    }
+
+    /**
+     * Registers a {@link SubCommand} beneath a parent path, using the
+     * metadata the command provides itself. Missing parents are created as
+     * grouping nodes.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param parent The space-separated parent path, or null for top-level
+     * @param cmd The {@link SubCommand} to register
+     * @throws CommandReregisterException If the name or an alias is taken
+     */
+    public void registerCommand(String parent, SubCommand cmd) throws CommandReregisterException {
+        String[] info = cmd.helpInfo();
+        if (cmd.getName() == null || info == null) {
+            throw new IllegalArgumentException("Commands registered by hand must provide getName() and helpInfo()");
+        }
+        this.registerCommand(parent, cmd, cmd.getName(), cmd.getAliases(),
+                cmd.getPermission(), info[0], info[1], cmd.isAsync());
+    }
+
+    /**
+     * Registers a {@link SubCommand} beneath a parent path with explicit
+     * metadata. This is what the generated command table calls for each
+     * {@link CommandInfo} annotated command.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param parent The space-separated parent path, or null for top-level
+     * @param cmd The {@link SubCommand} to register
+     * @param name The name of the command
+     * @param aliases The aliases of the command
+     * @param permission The required permission, or null for none
+     * @param usage The usage line of the command
+     * @param description The description of the command
+     * @param async Whether or not the command runs on the worker pool
+     * @throws CommandReregisterException If the name or an alias is taken
+     */
+    public void registerCommand(String parent, SubCommand cmd, String name, String[] aliases,
+            String permission, String usage, String description, boolean async) throws CommandReregisterException {
+        CommandNode node = this.root;
+        if (parent != null && !parent.isEmpty()) {
+            for (String part : parent.split(" ")) {
+                node = this.getOrCreate(node, part);
+            }
+        }
+        for (String alias : aliases) {
+            if (node.getExactChild(alias) != null) {
+                throw new CommandReregisterException("Alias already registered: " + alias);
+            }
+        }
+        CommandNode child = node.getExactChild(name);
+        if (child == null) {
+            child = new CommandNode(name, node);
+            node.putChild(name, child);
+        } else if (child.getCommand() != null) {
+            throw new CommandReregisterException("Command already registered: " + child.getPath());
+        }
+        for (String alias : aliases) {
+            node.putChild(alias, child);
+        }
+        child.setCommand(cmd, aliases.clone(), permission, usage, description, async);
+        RateLimiter limiter = this.createRateLimiter(child.getPath());
+        if (limiter != null) {
+            child.setRateLimiter(limiter);
+            List<RateLimiter> all = new ArrayList<RateLimiter>(this.limiters);
+            all.add(limiter);
+            this.limiters = Collections.unmodifiableList(all);
+        }
+        if (node == this.root) {
+            this.attach(name);
+        }
+        this.completions.invalidate();
+        this.help.invalidate();
+        List<SubCommand> all = new ArrayList<SubCommand>(this.commands);
+        all.add(cmd);
+        this.commands = Collections.unmodifiableList(all);
+        List<CommandNode> allNodes = new ArrayList<CommandNode>(this.nodes);
+        allNodes.add(child);
+        this.nodes = Collections.unmodifiableList(allNodes);
+    }
+
+    /**
+     * Creates the {@link RateLimiter} of a command from the configuration.
+     * Limits under {@link ConfigValues#COMMAND_RATE_OVERRIDES} keyed by the
+     * command path take precedence over the global burst and period.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param path The space-separated path of the command
+     * @return The {@link RateLimiter}, or null if the command is unlimited
+     */
+    private RateLimiter createRateLimiter(String path) {
+        ConfigSnapshot conf = this.plugin.getConfiguration().getSnapshot();
+        return RateLimiter.create(path, conf.getInt(ConfigValues.COMMAND_RATE_BURST),
+                conf.getInt(ConfigValues.COMMAND_RATE_PERIOD), conf.getSection(ConfigValues.COMMAND_RATE_OVERRIDES));
+    }
+
+    /**
+     * Returns the child of a node by exact name, creating a grouping node if
+     * it does not exist yet
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param node The parent node
+     * @param name The child name
+     * @return The existing or newly created child
+     */
+    private CommandNode getOrCreate(CommandNode node, String name) {
+        CommandNode child = node.getExactChild(name);
+        if (child == null) {
+            child = new CommandNode(name, node);
+            node.putChild(name, child);
+            if (node == this.root) {
+                this.attach(name);
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Sets this handler as the executor and tab completer of a bukkit-level
+     * command. A command missing from the plugin.yml cannot be run, which
+     * means the jar was built without the generated commands section.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The name of the bukkit-level command
+     */
+    private void attach(String name) {
+        PluginCommand bukkit = this.plugin.getCommand(name);
+        if (bukkit == null) {
+            this.plugin.getLogger().severe("Command '" + name + "' is not declared in plugin.yml and cannot be used,"
+                    + " rebuild the plugin to regenerate its commands section");
+            return;
+        }
+        bukkit.setExecutor(this);
+        bukkit.setTabCompleter(this);
+    }
     
     /**
-     * Returns a subcommand, or <code>null</code> if none exists.
+     * Returns a subcommand, or <code>null</code> if none exists. The name is
+     * a space-separated path, and each part may be an alias or unambiguous
+     * prefix.
      * 
      * @since 1.0.0
      * @version 1.0.0
@@ -107,7 +509,117 @@ public class CommandHandler implements CommandExecutor {
      * @return A relevant {@link Succommand}, or null if it does not exist
      */
     public SubCommand getCommand(String name) {
-        return this.commands.get(name);
+        CommandNode node = this.getNode(name);
+        return node == null ? null : node.getCommand();
+    }
+
+    /**
+     * Returns whether a command has been used since the plugin was enabled
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param path The full, space-separated path of the command
+     * @return <code>true</code> if the command has been run at least once
+     */
+    public boolean hasBeenUsed(String path) {
+        return this.used.contains(path);
+    }
+
+    /**
+     * Returns the trie node at a space-separated path, or <code>null</code>
+     * if none exists
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param path The path to the node
+     * @return The relevant {@link CommandNode}, or null if it does not exist
+     */
+    public CommandNode getNode(String path) {
+        CommandNode node = this.root;
+        for (String part : path.split(" ")) {
+            node = node.getChild(part);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+    
+    /**
+     * Sends a cached help page to a sender, listing only the commands the
+     * sender may use. A page past the end is answered with the page count.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender to send the page to
+     * @param page The page number, starting at 1
+     * @return false if the page does not exist
+     */
+    public boolean sendHelpPage(CommandSender sender, int page) {
+        return this.help.send(sender, page);
+    }
+
+    /**
+     * Returns the number of help pages a sender can see
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender reading the help
+     * @return The help page count, at least 1
+     */
+    public int getHelpPageCount(CommandSender sender) {
+        return this.help.getPageCount(sender);
+    }
+    
+    /**
+     * Returns the {@link MainThreadExecutor} asynchronous commands should use
+     * to run bukkit API calls
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The server thread {@link MainThreadExecutor}
+     */
+    public MainThreadExecutor getMainThreadExecutor() {
+        return this.mainThread;
+    }
+    
+    /**
+     * Stops accepting asynchronous commands and waits briefly for running
+     * ones to finish
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void cleanup() {
+        this.plugin.getConfiguration().unsubscribe(this.tuner);
+        this.evictor.cancel();
+        this.workers.shutdown();
+        try {
+            if (!this.workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                this.workers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            this.workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Returns the {@link CommandNode} of every registered command, in
+     * registration order
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return An unmodifiable {@link List} of command nodes
+     */
+    public List<CommandNode> getCommandNodes() {
+        return this.nodes;
     }
     
     /**
@@ -119,7 +631,7 @@ public class CommandHandler implements CommandExecutor {
      * @return A {@link Collection} of all registered {@link SubCommand}
      */
     public Collection<SubCommand> getCommands() {
-        return this.commands.values();
+        return this.commands;
     }
     
 }
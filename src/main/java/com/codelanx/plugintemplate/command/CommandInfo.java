@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a {@link com.codelanx.plugintemplate.command.commands.SubCommand}
+ * and its metadata. Annotated commands are picked up at build time by
+ * {@link com.codelanx.plugintemplate.command.processor.CommandInfoProcessor},
+ * which generates the registration table used by {@link CommandHandler} and
+ * the commands section of the plugin.yml. The annotation is not retained at
+ * runtime.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface CommandInfo {
+
+    /**
+     * The name of the command
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The command name
+     */
+    String name();
+
+    /**
+     * The space-separated path of the parent command, empty for a
+     * top-level command
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The parent path
+     */
+    String parent() default "";
+
+    /**
+     * Alternative names of the command
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The command aliases
+     */
+    String[] aliases() default {};
+
+    /**
+     * The permission required to use the command, empty for none
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The permission node
+     */
+    String permission() default "";
+
+    /**
+     * The usage line of the command
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The usage line
+     */
+    String usage();
+
+    /**
+     * The description of the command
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The description
+     */
+    String description();
+
+    /**
+     * Whether or not the command runs on the worker pool
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true for an asynchronous command
+     */
+    boolean async() default false;
+
+}
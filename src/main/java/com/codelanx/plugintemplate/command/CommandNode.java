@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import com.codelanx.plugintemplate.command.commands.SubCommand;
+import com.codelanx.plugintemplate.metrics.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single level of the command trie held by {@link CommandHandler}. Each
+ * node keeps its child names and aliases in one case-insensitively sorted
+ * array, so a lookup is a binary search for exact names and a short forward
+ * scan for unambiguous prefixes. Keys typed exactly as registered, the
+ * common case, are answered from a hash map before the search. Nodes are
+ * only mutated on registration, which happens on the server thread.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class CommandNode {
+
+    /** The primary name of this node */
+    private final String name;
+    /** The parent node, null for the root */
+    private final CommandNode parent;
+    /** The aliases this node is reachable by besides its name */
+    private String[] aliases = new String[0];
+    /** The command executed at this node, null for a grouping node */
+    private SubCommand command;
+    /** The permission required to use this node, null if none */
+    private String permission;
+    /** The usage line of the command */
+    private String usage;
+    /** The description of the command */
+    private String description;
+    /** Whether or not the command runs on the worker pool */
+    private boolean async;
+    /** Per-sender rate limit of the command, null if unlimited */
+    private RateLimiter limiter;
+    /** Execution time of the command */
+    private final LatencyHistogram timings = new LatencyHistogram();
+    /** Sorted child keys, names and aliases alike */
+    private String[] keys = new String[0];
+    /** Child nodes, parallel to {@link #keys} */
+    private CommandNode[] children = new CommandNode[0];
+    /** Children by key exactly as registered, checked before the sorted search */
+    private Map<String, CommandNode> exact = Collections.emptyMap();
+
+    /**
+     * {@link CommandNode} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The primary name of the node
+     * @param parent The parent node, or null for the root
+     */
+    CommandNode(String name, CommandNode parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    /**
+     * Finds the child matching a token. An exact name or alias always wins;
+     * otherwise the token is accepted as a prefix if every key starting with
+     * it points at the same child.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param token The token to resolve
+     * @return The matching child, or null if none or ambiguous
+     */
+    public CommandNode getChild(String token) {
+        CommandNode hit = this.exact.get(token);
+        if (hit != null) {
+            return hit;
+        }
+        String[] k = this.keys;
+        if (k.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(k, token, String.CASE_INSENSITIVE_ORDER);
+        if (index >= 0) {
+            return this.children[index];
+        }
+        index = -(index + 1);
+        CommandNode match = null;
+        for (int i = index; i < k.length && k[i].regionMatches(true, 0, token, 0, token.length()); i++) {
+            if (match == null) {
+                match = this.children[i];
+            } else if (match != this.children[i]) {
+                return null;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Finds the child registered under exactly the relevant name or alias
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The name or alias
+     * @return The child, or null if no exact match exists
+     */
+    public CommandNode getExactChild(String key) {
+        CommandNode hit = this.exact.get(key);
+        if (hit != null) {
+            return hit;
+        }
+        int index = Arrays.binarySearch(this.keys, key, String.CASE_INSENSITIVE_ORDER);
+        return index >= 0 ? this.children[index] : null;
+    }
+
+    /**
+     * Inserts a child under a key, keeping the key array sorted
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The name or alias to insert under
+     * @param child The child node
+     * @throws CommandReregisterException If the key is already taken
+     */
+    void putChild(String key, CommandNode child) throws CommandReregisterException {
+        int index = Arrays.binarySearch(this.keys, key, String.CASE_INSENSITIVE_ORDER);
+        if (index >= 0) {
+            throw new CommandReregisterException("Command '" + this.getPath()
+                    + "' already has a subcommand registered under: " + key);
+        }
+        index = -(index + 1);
+        String[] nkeys = new String[this.keys.length + 1];
+        CommandNode[] nchildren = new CommandNode[nkeys.length];
+        System.arraycopy(this.keys, 0, nkeys, 0, index);
+        System.arraycopy(this.children, 0, nchildren, 0, index);
+        nkeys[index] = key;
+        nchildren[index] = child;
+        System.arraycopy(this.keys, index, nkeys, index + 1, this.keys.length - index);
+        System.arraycopy(this.children, index, nchildren, index + 1, this.children.length - index);
+        Map<String, CommandNode> nexact = new HashMap<String, CommandNode>(this.exact);
+        nexact.put(key, child);
+        this.keys = nkeys;
+        this.children = nchildren;
+        this.exact = nexact;
+    }
+
+    /**
+     * Sets the command executed at this node and its metadata
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param command The {@link SubCommand} to execute
+     * @param aliases The aliases this node is reachable by
+     * @param permission The required permission, or null for none
+     * @param usage The usage line of the command
+     * @param description The description of the command
+     * @param async Whether or not the command runs on the worker pool
+     */
+    void setCommand(SubCommand command, String[] aliases, String permission, String usage, String description, boolean async) {
+        this.command = command;
+        this.aliases = aliases;
+        this.permission = permission;
+        this.usage = usage;
+        this.description = description;
+        this.async = async;
+    }
+
+    /**
+     * Returns the primary name of this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The node name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the aliases of this node, not including its name
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return A copy of the node aliases
+     */
+    public String[] getAliases() {
+        return this.aliases.clone();
+    }
+
+    /**
+     * Returns the parent of this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The parent node, or null for the root
+     */
+    public CommandNode getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Returns the {@link SubCommand} executed at this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The command, or null if this node only groups subcommands
+     */
+    public SubCommand getCommand() {
+        return this.command;
+    }
+
+    /**
+     * Returns the permission required to use this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The permission, or null if none is required
+     */
+    public String getPermission() {
+        return this.permission;
+    }
+
+    /**
+     * Returns the usage line of the command at this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The usage line
+     */
+    public String getUsage() {
+        return this.usage;
+    }
+
+    /**
+     * Returns the description of the command at this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The description
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Returns whether or not the command at this node runs on the worker pool
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true if the command is asynchronous
+     */
+    public boolean isAsync() {
+        return this.async;
+    }
+
+    /**
+     * Returns the per-sender rate limit of the command at this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The {@link RateLimiter}, or null if the command is unlimited
+     */
+    public RateLimiter getRateLimiter() {
+        return this.limiter;
+    }
+
+    /**
+     * Sets the per-sender rate limit of the command at this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param limiter The {@link RateLimiter}, or null for none
+     */
+    void setRateLimiter(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Returns the execution times recorded for the command at this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The {@link LatencyHistogram} of this node
+     */
+    public LatencyHistogram getTimings() {
+        return this.timings;
+    }
+
+    /**
+     * Returns the distinct children of this node, ordered by name
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return An unmodifiable {@link List} of child nodes
+     */
+    public List<CommandNode> getChildren() {
+        List<CommandNode> back = new ArrayList<CommandNode>(this.children.length);
+        for (int i = 0; i < this.children.length; i++) {
+            if (this.children[i].name.equalsIgnoreCase(this.keys[i])) {
+                back.add(this.children[i]);
+            }
+        }
+        return Collections.unmodifiableList(back);
+    }
+
+    /**
+     * Returns the full, space-separated path to this node
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The path, e.g. {@code "admin reload"}
+     */
+    public String getPath() {
+        if (this.parent == null || this.parent.parent == null) {
+            return this.name;
+        }
+        return this.parent.getPath() + " " + this.name;
+    }
+
+}
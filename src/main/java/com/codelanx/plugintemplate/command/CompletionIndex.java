@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import com.codelanx.plugintemplate.command.commands.SubCommand;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Precomputed tab-completion data for the command trie. Candidates are
+ * sorted once per permission profile, which is the set of command
+ * permissions a sender holds, and completing a token is then a binary search
+ * over the cached array for the prefix range. Each sender's profile is
+ * remembered too, so a keystroke does not query permissions. Bukkit fires no
+ * event when permissions are recalculated, so a remembered profile is
+ * re-checked after {@link #REFRESH}, or sooner through
+ * {@link #invalidate(CommandSender)}.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class CompletionIndex {
+
+    /** Marker for arguments completed by bukkit rather than the index */
+    private static final String[] DEFER = new String[0];
+    /** How long a sender's profile is trusted before its permissions are checked again */
+    private static final long REFRESH = TimeUnit.SECONDS.toNanos(1);
+    /** The root of the command trie being indexed */
+    private final CommandNode root;
+    /** Distinct permissions in the trie, by bit index */
+    private String[] permissions;
+    /** Permission profiles seen so far, as bitmasks over {@link #permissions} */
+    private long[][] profileKeys = new long[0][];
+    /** Candidates per profile, parallel to {@link #profileKeys} */
+    private Profile[] profiles = new Profile[0];
+    /** Sorted argument candidates per node, by argument index */
+    private final Map<CommandNode, String[][]> arguments = new IdentityHashMap<CommandNode, String[][]>();
+    /** The profile each sender was last found to hold */
+    private final Map<CommandSender, SenderProfile> senders = new WeakHashMap<CommandSender, SenderProfile>();
+
+    /**
+     * {@link CompletionIndex} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param root The root of the command trie
+     */
+    CompletionIndex(CommandNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Drops every cached profile, called whenever the command set changes
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    synchronized void invalidate() {
+        this.permissions = null;
+        this.profileKeys = new long[0][];
+        this.profiles = new Profile[0];
+        this.arguments.clear();
+        this.senders.clear();
+    }
+
+    /**
+     * Forgets the profile of a sender whose permissions changed, so the next
+     * completion checks them again
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender to forget
+     */
+    synchronized void invalidate(CommandSender sender) {
+        this.senders.remove(sender);
+    }
+
+    /**
+     * Completes the last argument of a command line. Where a command's
+     * argument defers to player names, null is returned so bukkit supplies
+     * them, unless the command also has visible subcommands at that position,
+     * in which case the subcommands and matching player names are merged.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender completing the command
+     * @param command The bukkit-level command name
+     * @param args The arguments typed so far, the last being completed
+     * @return An unmodifiable {@link List} of candidates, backed by the
+     *         cached array, or null to defer to bukkit's player names
+     */
+    List<String> complete(CommandSender sender, String command, String[] args) {
+        CommandNode node = this.root.getExactChild(command);
+        if (node == null || args.length == 0) {
+            return Collections.emptyList();
+        }
+        Profile profile = this.getProfile(sender);
+        if (!profile.canSee(node)) {
+            return Collections.emptyList();
+        }
+        int depth = 0;
+        while (depth < args.length - 1) {
+            CommandNode next = node.getChild(args[depth]);
+            if (next == null || !profile.canSee(next)) {
+                break;
+            }
+            node = next;
+            depth++;
+        }
+        String token = args[args.length - 1];
+        String[] candidates;
+        if (depth == args.length - 1) {
+            candidates = profile.getCandidates(node);
+            if (node.getCommand() != null && this.getArguments(node, 0) == CompletionIndex.DEFER) {
+                if (candidates.length == 0) {
+                    return null;
+                }
+                return CompletionIndex.withPlayers(sender, CompletionIndex.prefixRange(candidates, token), token);
+            }
+        } else if (node.getCommand() != null) {
+            candidates = this.getArguments(node, args.length - 1 - depth);
+            if (candidates == CompletionIndex.DEFER) {
+                return null;
+            }
+        } else {
+            return Collections.emptyList();
+        }
+        return CompletionIndex.prefixRange(candidates, token);
+    }
+
+    /**
+     * Merges the online players a sender can see into a list of candidates,
+     * the same players bukkit would have offered
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender completing the command
+     * @param matches The other candidates matching the prefix
+     * @param prefix The prefix typed so far
+     * @return A new sorted {@link List} of candidates
+     */
+    private static List<String> withPlayers(CommandSender sender, List<String> matches, String prefix) {
+        Player viewer = sender instanceof Player ? (Player) sender : null;
+        List<String> back = new ArrayList<String>(matches);
+        for (Player player : sender.getServer().getOnlinePlayers()) {
+            if ((viewer == null || viewer.canSee(player))
+                    && player.getName().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                back.add(player.getName());
+            }
+        }
+        Collections.sort(back, String.CASE_INSENSITIVE_ORDER);
+        return back;
+    }
+
+    /**
+     * Returns the sorted completions of a {@link SubCommand} argument,
+     * sorting them on first use
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param node The node of the command owning the argument
+     * @param index The argument index
+     * @return The sorted candidates, or {@link #DEFER}
+     */
+    private synchronized String[] getArguments(CommandNode node, int index) {
+        String[][] cached = this.arguments.get(node);
+        if (cached == null || cached.length <= index) {
+            String[][] grown = new String[index + 1][];
+            if (cached != null) {
+                System.arraycopy(cached, 0, grown, 0, cached.length);
+            }
+            cached = grown;
+            this.arguments.put(node, cached);
+        }
+        if (cached[index] == null) {
+            String[] back = node.getCommand().getCompletions(index);
+            if (back == null) {
+                back = CompletionIndex.DEFER;
+            } else {
+                back = back.clone();
+                Arrays.sort(back, String.CASE_INSENSITIVE_ORDER);
+            }
+            cached[index] = back;
+        }
+        return cached[index];
+    }
+
+    /**
+     * Returns the profile of a sender, checking its permissions only if it
+     * has not been seen within {@link #REFRESH}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender to evaluate
+     * @return The sender's {@link Profile}
+     */
+    private synchronized Profile getProfile(CommandSender sender) {
+        if (this.permissions == null) {
+            this.permissions = this.collectPermissions();
+        }
+        long now = System.nanoTime();
+        SenderProfile seen = this.senders.get(sender);
+        if (seen != null && now - seen.checked < CompletionIndex.REFRESH) {
+            return seen.profile;
+        }
+        if (seen == null) {
+            seen = new SenderProfile(new long[(this.permissions.length + 63) >>> 6]);
+            this.senders.put(sender, seen);
+        }
+        Arrays.fill(seen.mask, 0L);
+        for (int i = 0; i < this.permissions.length; i++) {
+            if (sender.hasPermission(this.permissions[i])) {
+                seen.mask[i >>> 6] |= 1L << i;
+            }
+        }
+        seen.profile = this.getProfile(seen.mask);
+        seen.checked = now;
+        return seen.profile;
+    }
+
+    /**
+     * Returns the profile for a set of held permissions, building it on
+     * first use
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param mask Bitmask of the held permissions
+     * @return The matching {@link Profile}
+     */
+    private Profile getProfile(long[] mask) {
+        for (int i = 0; i < this.profileKeys.length; i++) {
+            if (Arrays.equals(this.profileKeys[i], mask)) {
+                return this.profiles[i];
+            }
+        }
+        long[] key = mask.clone();
+        Profile back = new Profile(key);
+        this.profileKeys = Arrays.copyOf(this.profileKeys, this.profileKeys.length + 1);
+        this.profiles = Arrays.copyOf(this.profiles, this.profiles.length + 1);
+        this.profileKeys[this.profileKeys.length - 1] = key;
+        this.profiles[this.profiles.length - 1] = back;
+        return back;
+    }
+
+    /**
+     * Collects the distinct permissions used throughout the trie
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The permissions, indexed by profile bit
+     */
+    private String[] collectPermissions() {
+        Set<String> back = new LinkedHashSet<String>();
+        this.collectPermissions(this.root, back);
+        return back.toArray(new String[back.size()]);
+    }
+
+    private void collectPermissions(CommandNode node, Set<String> perms) {
+        for (CommandNode child : node.getChildren()) {
+            if (child.getPermission() != null) {
+                perms.add(child.getPermission());
+            }
+            this.collectPermissions(child, perms);
+        }
+    }
+
+    /**
+     * Returns the candidates of a sorted array starting with a prefix
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sorted The candidates, sorted case-insensitively
+     * @param prefix The prefix typed so far
+     * @return An unmodifiable view of the matching range, sharing the array
+     */
+    private static List<String> prefixRange(String[] sorted, String prefix) {
+        int from = Arrays.binarySearch(sorted, prefix, String.CASE_INSENSITIVE_ORDER);
+        if (from < 0) {
+            from = -(from + 1);
+        }
+        int to = from;
+        while (to < sorted.length && sorted[to].regionMatches(true, 0, prefix, 0, prefix.length())) {
+            to++;
+        }
+        if (from == to) {
+            return Collections.emptyList();
+        }
+        return new Range(sorted, from, to);
+    }
+
+    /**
+     * Read-only view over part of a cached candidate array
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Range extends AbstractList<String> implements RandomAccess {
+
+        private final String[] sorted;
+        private final int from;
+        private final int to;
+
+        private Range(String[] sorted, int from, int to) {
+            this.sorted = sorted;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= this.to - this.from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+            }
+            return this.sorted[this.from + index];
+        }
+
+        @Override
+        public int size() {
+            return this.to - this.from;
+        }
+
+    }
+
+    /**
+     * The permissions a sender was last found to hold
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class SenderProfile {
+
+        /** Bitmask of the held permissions, reused on each check */
+        private final long[] mask;
+        private Profile profile;
+        /** {@link System#nanoTime()} of the last check */
+        private long checked;
+
+        private SenderProfile(long[] mask) {
+            this.mask = mask;
+        }
+
+    }
+
+    /**
+     * The completion candidates visible to one permission profile
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private final class Profile {
+
+        /** Bitmask of the permissions held, indexed as {@link #permissions} */
+        private final long[] mask;
+        /** Sorted candidates following each visible node */
+        private final Map<CommandNode, String[]> candidates = new IdentityHashMap<CommandNode, String[]>();
+
+        /**
+         * {@link Profile} constructor, indexes every visible node
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @param mask The permissions held by this profile
+         */
+        private Profile(long[] mask) {
+            this.mask = mask;
+            this.index(root);
+        }
+
+        /**
+         * Indexes a node and its visible descendants
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @param node The node to index
+         */
+        private void index(CommandNode node) {
+            Set<String> back = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+            for (CommandNode child : node.getChildren()) {
+                if (this.isVisible(child)) {
+                    back.add(child.getName());
+                    back.addAll(Arrays.asList(child.getAliases()));
+                    this.index(child);
+                }
+            }
+            if (node.getCommand() != null && node.getCommand().getCompletions(0) != null) {
+                back.addAll(Arrays.asList(node.getCommand().getCompletions(0)));
+            }
+            this.candidates.put(node, back.toArray(new String[back.size()]));
+        }
+
+        /**
+         * Returns whether or not a node was indexed for this profile
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @param node The node to check
+         * @return true if this profile may see the node
+         */
+        private boolean canSee(CommandNode node) {
+            return this.candidates.containsKey(node);
+        }
+
+        /**
+         * Returns whether or not this profile holds the permission of a node
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @param node The node to check
+         * @return true if the node requires no permission this profile lacks
+         */
+        private boolean isVisible(CommandNode node) {
+            if (node.getPermission() == null) {
+                return true;
+            }
+            int bit = Arrays.asList(permissions).indexOf(node.getPermission());
+            return bit >= 0 && (this.mask[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        /**
+         * Returns the sorted candidates following a node
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @param node The node reached so far
+         * @return The sorted candidates
+         */
+        private String[] getCandidates(CommandNode node) {
+            String[] back = this.candidates.get(node);
+            return back == null ? new String[0] : back;
+        }
+
+    }
+
+}
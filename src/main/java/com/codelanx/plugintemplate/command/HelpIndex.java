@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import static com.codelanx.plugintemplate.PluginTemplate.__;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Cache of the rendered help pages. Commands are sorted once after the
+ * command set changes, and pages are rendered once per set of command
+ * permissions held, so senders only see commands they may use, as in tab
+ * completion. Every help request afterwards checks the sender's permissions
+ * and sends an existing page.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class HelpIndex {
+
+    /** Number of commands displayed per page */
+    private static final int PAGE_SIZE = 5;
+    /** The root of the command trie being rendered */
+    private final CommandNode root;
+    /** Every command node sorted by path, null until the next request after a change */
+    private List<CommandNode> sorted;
+    /** Bit index of each distinct permission in the trie */
+    private final Map<String, Integer> permissions = new HashMap<String, Integer>();
+    /** Rendered pages by the permissions held */
+    private final Map<BitSet, String[]> pages = new HashMap<BitSet, String[]>();
+
+    /**
+     * {@link HelpIndex} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param root The root of the command trie
+     */
+    HelpIndex(CommandNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Drops the rendered pages, called whenever the command set changes
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    synchronized void invalidate() {
+        this.sorted = null;
+        this.permissions.clear();
+        this.pages.clear();
+    }
+
+    /**
+     * Returns the number of help pages a sender can see
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender reading the help
+     * @return The page count, at least 1
+     */
+    int getPageCount(CommandSender sender) {
+        return this.getPages(sender).length;
+    }
+
+    /**
+     * Sends a help page to a sender in a single message, or tells the sender
+     * how many pages there are if it does not exist
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender to send to
+     * @param page The page number, starting at 1
+     * @return false if the page does not exist
+     */
+    boolean send(CommandSender sender, int page) {
+        String[] render = this.getPages(sender);
+        if (page < 1 || page > render.length) {
+            sender.sendMessage(__("&cHelp page &e" + page + "&c/&e" + render.length + "&c does not exist"));
+            return false;
+        }
+        sender.sendMessage(render[page - 1]);
+        return true;
+    }
+
+    /**
+     * Returns the pages for the permissions a sender holds, rendering them
+     * on first use
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender reading the help
+     * @return The rendered pages
+     */
+    private synchronized String[] getPages(CommandSender sender) {
+        if (this.sorted == null) {
+            this.sorted = this.sort();
+        }
+        BitSet held = new BitSet(this.permissions.size());
+        for (Map.Entry<String, Integer> entry : this.permissions.entrySet()) {
+            if (sender.hasPermission(entry.getKey())) {
+                held.set(entry.getValue());
+            }
+        }
+        String[] back = this.pages.get(held);
+        if (back == null) {
+            back = this.render(held);
+            this.pages.put(held, back);
+        }
+        return back;
+    }
+
+    /**
+     * Collects every registered command sorted by path, indexing their
+     * permissions
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The sorted command nodes
+     */
+    private List<CommandNode> sort() {
+        List<CommandNode> nodes = new ArrayList<CommandNode>();
+        this.collect(this.root, nodes);
+        Collections.sort(nodes, new Comparator<CommandNode>() {
+
+            public int compare(CommandNode o1, CommandNode o2) {
+                return o1.getPath().compareToIgnoreCase(o2.getPath());
+            }
+
+        });
+        return nodes;
+    }
+
+    private void collect(CommandNode node, List<CommandNode> nodes) {
+        for (CommandNode child : node.getChildren()) {
+            if (child.getPermission() != null && !this.permissions.containsKey(child.getPermission())) {
+                this.permissions.put(child.getPermission(), this.permissions.size());
+            }
+            if (child.getCommand() != null) {
+                nodes.add(child);
+            }
+            this.collect(child, nodes);
+        }
+    }
+
+    /**
+     * Renders the commands visible with a set of permissions into pages,
+     * each translated in one pass and joined into a single message
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param held The permissions held, by bit index
+     * @return The rendered pages
+     */
+    private String[] render(BitSet held) {
+        List<CommandNode> nodes = new ArrayList<CommandNode>();
+        for (CommandNode node : this.sorted) {
+            if (this.isVisible(node, held)) {
+                nodes.add(node);
+            }
+        }
+        int count = Math.max(1, (nodes.size() + HelpIndex.PAGE_SIZE - 1) / HelpIndex.PAGE_SIZE);
+        String[] back = new String[count];
+        for (int page = 0; page < count; page++) {
+            int from = page * HelpIndex.PAGE_SIZE;
+            int to = Math.min(from + HelpIndex.PAGE_SIZE, nodes.size());
+            StringBuilder sb = new StringBuilder("&6Help page &e").append(page + 1).append("&6/&e").append(count);
+            for (int i = from; i < to; i++) {
+                CommandNode node = nodes.get(i);
+                sb.append("\n&e").append(node.getUsage()).append(" &f- ").append(node.getDescription());
+            }
+            back[page] = __(sb.toString());
+        }
+        return back;
+    }
+
+    /**
+     * Returns whether a node and every node above it are usable with a set
+     * of permissions
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param node The node to check
+     * @param held The permissions held, by bit index
+     * @return true if no permission on the path is missing
+     */
+    private boolean isVisible(CommandNode node, BitSet held) {
+        for (CommandNode at = node; at != null && at != this.root; at = at.getParent()) {
+            if (at.getPermission() != null && !held.get(this.permissions.get(at.getPermission()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import static com.codelanx.plugintemplate.PluginTemplate.__;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Collects the lines of a command response and sends them together. Color
+ * codes are translated in one pass over the whole buffer when it is
+ * flushed, and the sender receives a single message.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class MessageBuffer {
+
+    private final CommandSender sender;
+    private final StringBuilder lines = new StringBuilder();
+
+    /**
+     * {@link MessageBuffer} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The sender the buffer is flushed to
+     */
+    public MessageBuffer(CommandSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Appends a line with untranslated {@code &} color codes
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param line The line to append
+     * @return This buffer, for chaining
+     */
+    public MessageBuffer line(String line) {
+        if (this.lines.length() > 0) {
+            this.lines.append('\n');
+        }
+        this.lines.append(line);
+        return this;
+    }
+
+    /**
+     * Appends a formatted line with untranslated {@code &} color codes
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param format The {@link String#format(String, Object...)} format
+     * @param args The format arguments
+     * @return This buffer, for chaining
+     */
+    public MessageBuffer line(String format, Object... args) {
+        return this.line(String.format(format, args));
+    }
+
+    /**
+     * Returns whether or not nothing has been appended since the last flush
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true if the buffer is empty
+     */
+    public boolean isEmpty() {
+        return this.lines.length() == 0;
+    }
+
+    /**
+     * Translates the buffered lines and sends them as one message, then
+     * empties the buffer. Nothing is sent if the buffer is empty.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void flush() {
+        if (this.lines.length() == 0) {
+            return;
+        }
+        this.sender.sendMessage(__(this.lines.toString()));
+        this.lines.setLength(0);
+    }
+
+}
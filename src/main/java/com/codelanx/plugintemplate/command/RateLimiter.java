@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket per sender. Each bucket is a single
+ * {@link AtomicLong} holding the theoretical arrival time of the next token
+ * (the generic cell rate algorithm), so acquiring is one CAS and a full
+ * bucket is simply one whose arrival time has passed.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class RateLimiter {
+
+    /** Reads {@link System#nanoTime()} */
+    private static final LongSupplier SYSTEM_CLOCK = new LongSupplier() {
+
+        public long getAsLong() {
+            return System.nanoTime();
+        }
+
+    };
+    /** Source of the current time, in nanoseconds */
+    private final LongSupplier clock;
+    /** Nanoseconds between two tokens */
+    private final long interval;
+    /** How far ahead of now the arrival time may run, the burst allowance */
+    private final long tolerance;
+    /** Buckets by sender */
+    private final ConcurrentHashMap<UUID, AtomicLong> buckets = new ConcurrentHashMap<UUID, AtomicLong>();
+
+    /**
+     * {@link RateLimiter} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param burst The number of uses allowed in a row
+     * @param period Milliseconds for a single use to be refunded
+     */
+    public RateLimiter(int burst, long period) {
+        this(burst, period, RateLimiter.SYSTEM_CLOCK);
+    }
+
+    /**
+     * {@link RateLimiter} constructor reading time from a given clock
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param burst The number of uses allowed in a row
+     * @param period Milliseconds for a single use to be refunded
+     * @param clock The source of the current time, in nanoseconds
+     */
+    RateLimiter(int burst, long period, LongSupplier clock) {
+        if (burst < 1 || period < 1) {
+            throw new IllegalArgumentException("Burst and period must be positive");
+        }
+        this.interval = TimeUnit.MILLISECONDS.toNanos(period);
+        this.tolerance = this.interval * burst;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the limiter of a command, where limits in a flattened override
+     * section keyed by {@code "<path>.burst"} and {@code "<path>.period"} take
+     * precedence over the defaults
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param path The space-separated path of the command
+     * @param burst The default burst
+     * @param period The default period, in milliseconds
+     * @param overrides The flattened override section, or null if none
+     * @return The {@link RateLimiter}, or null if the command is unlimited
+     */
+    static RateLimiter create(String path, int burst, long period, Map<String, Object> overrides) {
+        if (overrides != null) {
+            Object value = overrides.get(path + ".burst");
+            if (value instanceof Number) {
+                burst = ((Number) value).intValue();
+            }
+            value = overrides.get(path + ".period");
+            if (value instanceof Number) {
+                period = ((Number) value).longValue();
+            }
+        }
+        return burst > 0 && period > 0 ? new RateLimiter(burst, period) : null;
+    }
+
+    /**
+     * Takes a token from a sender's bucket
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The {@link UUID} of the sender
+     * @return 0 if a token was taken, or the nanoseconds until one is available
+     */
+    public long tryAcquire(UUID sender) {
+        long now = this.clock.getAsLong();
+        AtomicLong bucket = this.buckets.get(sender);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = this.buckets.putIfAbsent(sender, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + this.interval;
+            long ahead = next - now;
+            if (ahead > this.tolerance) {
+                return ahead - this.tolerance;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets of senders that have refilled completely. A sender
+     * racing this removal at worst receives a fresh, full bucket.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The number of evicted buckets
+     */
+    public int evictIdle() {
+        long now = this.clock.getAsLong();
+        int back = 0;
+        Iterator<AtomicLong> itr = this.buckets.values().iterator();
+        while (itr.hasNext()) {
+            if (itr.next().get() - now <= 0) {
+                itr.remove();
+                back++;
+            }
+        }
+        return back;
+    }
+
+}
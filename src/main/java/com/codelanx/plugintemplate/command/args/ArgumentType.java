@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.args;
+
+/**
+ * A typed {@link com.codelanx.plugintemplate.command.commands.SubCommand}
+ * argument. Parsing never throws; invalid input yields <code>null</code>,
+ * and the error message is only built once a command actually fails.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ * 
+ * @param <T> The type the argument parses into
+ */
+public interface ArgumentType<T> {
+
+    /**
+     * Returns the name of this type, as shown in usage and error messages
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The type name
+     */
+    public abstract String getName();
+
+    /**
+     * Parses an argument
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param input The raw argument
+     * @return The parsed value, or null if the input is invalid
+     */
+    public abstract T parse(String input);
+
+    /**
+     * Describes why an argument failed to parse
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param input The raw argument that failed
+     * @return The error message
+     */
+    public default String getError(String input) {
+        return "'" + input + "' is not a valid " + this.getName();
+    }
+
+    /**
+     * Returns the fixed tab-completion candidates of this type
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The candidates, or null to defer to bukkit's player names
+     */
+    public default String[] getCompletions() {
+        return new String[0];
+    }
+
+}
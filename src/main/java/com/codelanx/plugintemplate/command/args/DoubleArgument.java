@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.args;
+
+/**
+ * Decimal number argument. Input is validated by a single scan before it is
+ * handed to {@link Double#parseDouble(String)}, so malformed input never
+ * raises a {@link NumberFormatException}.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class DoubleArgument implements ArgumentType<Double> {
+
+    /** Any finite number */
+    public static final DoubleArgument ANY = new DoubleArgument();
+
+    public String getName() {
+        return "number";
+    }
+
+    public Double parse(String input) {
+        double back = this.parseDouble(input);
+        return Double.isNaN(back) ? null : back;
+    }
+
+    /**
+     * Parses a decimal number without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param input The raw argument
+     * @return The value, or {@link Double#NaN} if malformed
+     */
+    public double parseDouble(String input) {
+        int len = input.length();
+        int i = 0;
+        if (i < len && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        boolean dot = false;
+        for (; i < len; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < len && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            i++;
+            if (i < len && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                i++;
+            }
+            int exp = 0;
+            for (; i < len && input.charAt(i) >= '0' && input.charAt(i) <= '9'; i++) {
+                exp++;
+            }
+            if (exp == 0) {
+                return Double.NaN;
+            }
+        }
+        if (i != len) {
+            return Double.NaN;
+        }
+        double back = Double.parseDouble(input);
+        return Double.isInfinite(back) ? Double.NaN : back;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.args;
+
+/**
+ * Duration argument such as {@code 90s}, {@code 1h30m} or {@code 2d}. A bare
+ * number is read as seconds. Values are parsed into milliseconds.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class DurationArgument implements ArgumentType<Long> {
+
+    /** Any duration */
+    public static final DurationArgument ANY = new DurationArgument();
+    /** Marker returned by {@link #parseMillis(String)} for invalid input */
+    public static final long INVALID = -1L;
+
+    public String getName() {
+        return "duration";
+    }
+
+    public Long parse(String input) {
+        long back = this.parseMillis(input);
+        return back == DurationArgument.INVALID ? null : back;
+    }
+
+    /**
+     * Parses a duration without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param input The raw argument
+     * @return The duration in milliseconds, or {@link #INVALID} if malformed
+     *         or too long to fit in a {@code long}
+     */
+    public long parseMillis(String input) {
+        int len = input.length();
+        if (len == 0) {
+            return DurationArgument.INVALID;
+        }
+        long total = 0;
+        int i = 0;
+        while (i < len) {
+            long value = 0;
+            int start = i;
+            for (; i < len && input.charAt(i) >= '0' && input.charAt(i) <= '9'; i++) {
+                value = value * 10 + (input.charAt(i) - '0');
+                if (value > Integer.MAX_VALUE) {
+                    return DurationArgument.INVALID;
+                }
+            }
+            if (i == start) {
+                return DurationArgument.INVALID;
+            }
+            long unit;
+            if (i == len) {
+                unit = start == 0 ? 1000L : DurationArgument.INVALID;
+            } else if (input.startsWith("ms", i)) {
+                unit = 1L;
+                i += 2;
+            } else {
+                switch (Character.toLowerCase(input.charAt(i++))) {
+                    case 's':
+                        unit = 1000L;
+                        break;
+                    case 'm':
+                        unit = 60000L;
+                        break;
+                    case 'h':
+                        unit = 3600000L;
+                        break;
+                    case 'd':
+                        unit = 86400000L;
+                        break;
+                    case 'w':
+                        unit = 604800000L;
+                        break;
+                    default:
+                        return DurationArgument.INVALID;
+                }
+            }
+            if (unit == DurationArgument.INVALID) {
+                return DurationArgument.INVALID;
+            }
+            try {
+                total = Math.addExact(total, Math.multiplyExact(value, unit));
+            } catch (ArithmeticException ex) {
+                return DurationArgument.INVALID;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String getError(String input) {
+        return "'" + input + "' is not a valid duration, e.g. 30s, 5m or 1h30m, or is too long";
+    }
+
+}
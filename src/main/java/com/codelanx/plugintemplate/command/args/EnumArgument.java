@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.args;
+
+import java.util.Arrays;
+
+/**
+ * Enum constant argument, matched case-insensitively. Constant names are
+ * sorted once, so a lookup is a binary search.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ * 
+ * @param <E> The enum type
+ */
+public class EnumArgument<E extends Enum<E>> implements ArgumentType<E> {
+
+    private final Class<E> type;
+    /** Constant names, sorted case-insensitively */
+    private final String[] names;
+    /** Constants, parallel to {@link #names} */
+    private final E[] values;
+
+    /**
+     * {@link EnumArgument} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param type The enum class
+     */
+    public EnumArgument(Class<E> type) {
+        this.type = type;
+        E[] constants = type.getEnumConstants();
+        this.names = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            this.names[i] = constants[i].name().toLowerCase();
+        }
+        Arrays.sort(this.names, String.CASE_INSENSITIVE_ORDER);
+        this.values = Arrays.copyOf(constants, constants.length);
+        for (int i = 0; i < this.names.length; i++) {
+            for (E constant : constants) {
+                if (constant.name().equalsIgnoreCase(this.names[i])) {
+                    this.values[i] = constant;
+                }
+            }
+        }
+    }
+
+    public String getName() {
+        return this.type.getSimpleName().toLowerCase();
+    }
+
+    public E parse(String input) {
+        int index = Arrays.binarySearch(this.names, input, String.CASE_INSENSITIVE_ORDER);
+        return index >= 0 ? this.values[index] : null;
+    }
+
+    @Override
+    public String getError(String input) {
+        return "'" + input + "' is not one of: " + String.join(", ", this.names);
+    }
+
+    @Override
+    public String[] getCompletions() {
+        return this.names.clone();
+    }
+
+}
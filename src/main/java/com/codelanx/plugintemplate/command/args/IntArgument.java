@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.args;
+
+/**
+ * Integer argument with an optional inclusive range
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class IntArgument implements ArgumentType<Integer> {
+
+    /** Any integer */
+    public static final IntArgument ANY = new IntArgument(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    /** Marker returned by {@link #parseInt(String)} for invalid input */
+    public static final long INVALID = Long.MIN_VALUE;
+    private final int min;
+    private final int max;
+
+    /**
+     * {@link IntArgument} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param min The smallest accepted value
+     * @param max The largest accepted value
+     */
+    public IntArgument(int min, int max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getName() {
+        return "int";
+    }
+
+    public Integer parse(String input) {
+        long back = this.parseInt(input);
+        return back == IntArgument.INVALID ? null : (int) back;
+    }
+
+    /**
+     * Parses an integer without boxing or throwing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param input The raw argument
+     * @return The value, or {@link #INVALID} if malformed or out of range
+     */
+    public long parseInt(String input) {
+        int len = input.length();
+        if (len == 0 || len > 11) {
+            return IntArgument.INVALID;
+        }
+        boolean negative = input.charAt(0) == '-';
+        int i = negative || input.charAt(0) == '+' ? 1 : 0;
+        if (i == len) {
+            return IntArgument.INVALID;
+        }
+        long back = 0;
+        for (; i < len; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return IntArgument.INVALID;
+            }
+            back = back * 10 + digit;
+        }
+        if (negative) {
+            back = -back;
+        }
+        return back < this.min || back > this.max ? IntArgument.INVALID : back;
+    }
+
+    @Override
+    public String getError(String input) {
+        if (this.min == Integer.MIN_VALUE && this.max == Integer.MAX_VALUE) {
+            return ArgumentType.super.getError(input);
+        }
+        return "'" + input + "' is not a whole number between " + this.min + " and " + this.max;
+    }
+
+}
@@ -20,9 +20,10 @@
 package com.codelanx.plugintemplate.command.commands;
 
 import com.codelanx.plugintemplate.PluginTemplate;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Comparator;
+import com.codelanx.plugintemplate.command.CommandArguments;
+import com.codelanx.plugintemplate.command.CommandInfo;
+import com.codelanx.plugintemplate.command.args.ArgumentType;
+import com.codelanx.plugintemplate.command.args.IntArgument;
 import org.bukkit.command.CommandSender;
 
 /**
@@ -32,57 +33,31 @@ import org.bukkit.command.CommandSender;
  * @author 1Rogue
  * @version 1.0.0
  */
+@CommandInfo(name = "help", usage = "/help [page]", description = "Displays help information")
 public class HelpCommand implements SubCommand {
     
+    private static final IntArgument PAGE = new IntArgument(1, Integer.MAX_VALUE);
     private final PluginTemplate plugin;
-    private final String usagePrefix = "";
-    private final String infoPrefix = "";
     
     public HelpCommand(PluginTemplate plugin) {
         this.plugin = plugin;
     }
 
-    public boolean execute(CommandSender sender, String[] args) {
+    public boolean execute(CommandSender sender, CommandArguments args) {
         
-        int factor = 5;
-        int page = 1;
-        
-        if (args.length > 0) {
-            try {
-                page = Integer.parseInt(args[1]);
-            } catch (NumberFormatException ex) {
-                return false;
-            }
-        }
-        
-        Collection<SubCommand> subs = this.plugin.getCommandHandler().getCommands();
-        SubCommand[] cmds = subs.toArray(new SubCommand[subs.size()]);
-        Arrays.sort(cmds, new Comparator<SubCommand>() {
-
-            public int compare(SubCommand o1, SubCommand o2) {
-                return o1.getName().compareTo(o2.getName());
-            }
-            
-        });
-        
-        if (page * factor > cmds.length) {
-            
-        }
-        
-        StringBuilder sb = new StringBuilder();
-        for (SubCommand cmd : this.plugin.getCommandHandler().getCommands()) {
-            sb.append(cmd.helpInfo()[0]).append(" - ").append(cmd.helpInfo()[1]).append('\n');
+        int page = args.getInt(0, HelpCommand.PAGE, 1);
+        if (args.hasError()) {
+            return false;
         }
         
+        // a missing page is explained by the handler, so no usage is needed
+        this.plugin.getCommandHandler().sendHelpPage(sender, page);
         return true;
     }
 
-    public String getName() {
-        return "help";
-    }
-
-    public String[] helpInfo() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    @Override
+    public ArgumentType<?>[] getArguments() {
+        return new ArgumentType<?>[] { HelpCommand.PAGE };
     }
 
 }
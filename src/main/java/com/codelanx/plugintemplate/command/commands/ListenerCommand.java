@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.commands;
+
+import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.command.CommandArguments;
+import com.codelanx.plugintemplate.command.CommandInfo;
+import com.codelanx.plugintemplate.command.MessageBuffer;
+import com.codelanx.plugintemplate.listener.ListenerManager;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Lists registered listeners, or turns one on or off at runtime
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@CommandInfo(name = "listener", usage = "/listener [name] [on|off]",
+        description = "Lists or toggles event listeners", permission = "plugintemplate.listener")
+public class ListenerCommand implements SubCommand {
+    
+    private final PluginTemplate plugin;
+    
+    public ListenerCommand(PluginTemplate plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean execute(CommandSender sender, CommandArguments args) {
+        ListenerManager listeners = this.plugin.getListenerManager();
+        if (args.isEmpty()) {
+            MessageBuffer out = new MessageBuffer(sender).line("&6Listeners:");
+            for (String name : listeners.getNames()) {
+                out.line("&e%s &f%s", name, listeners.isEnabled(name) ? "on" : "off");
+            }
+            out.flush();
+            return true;
+        }
+        String name = args.get(0);
+        if (!listeners.isRegistered(name)) {
+            new MessageBuffer(sender).line("&cNo listener named %s", name).flush();
+            return true;
+        }
+        boolean enable;
+        if (args.length() < 2) {
+            enable = !listeners.isEnabled(name);
+        } else if (args.get(1).equalsIgnoreCase("on")) {
+            enable = true;
+        } else if (args.get(1).equalsIgnoreCase("off")) {
+            enable = false;
+        } else {
+            return false;
+        }
+        listeners.setEnabled(name, enable);
+        new MessageBuffer(sender).line("&6Listener &e%s &6turned %s", name, enable ? "on" : "off").flush();
+        return true;
+    }
+
+    @Override
+    public String[] getCompletions(int index) {
+        return index == 1 ? new String[] { "on", "off" } : new String[0];
+    }
+
+}
@@ -19,6 +19,10 @@
  */
 package com.codelanx.plugintemplate.command.commands;
 
+import com.codelanx.plugintemplate.command.CommandArguments;
+import com.codelanx.plugintemplate.command.CommandHandler;
+import com.codelanx.plugintemplate.command.CommandInfo;
+import com.codelanx.plugintemplate.command.args.ArgumentType;
 import org.bukkit.command.CommandSender;
 
 /**
@@ -36,31 +40,106 @@ public interface SubCommand {
      * @version 1.3.0
      * 
      * @param sender The command executor
-     * @param args The command arguments, starting after the command name
+     * @param args A view of the command arguments, starting after the
+     *             command name
      * 
      * @return true on success, false if failed
      */
-    public abstract boolean execute(CommandSender sender, String[] args);
+    public abstract boolean execute(CommandSender sender, CommandArguments args);
     
     /**
      * Returns the name of the command, used for storing a hashmap of the
-     * commands
+     * commands. Commands annotated with {@link CommandInfo} take their name
+     * from the annotation instead.
      * 
      * @since 1.3.0
      * @version 1.3.0
      * 
-     * @return The command's name
+     * @return The command's name, null by default
      */
-    public abstract String getName();
+    public default String getName() {
+        return null;
+    }
     
     /**
-     * Represents data put out by the help menu, or incorrect usage
+     * Returns the alternative names this command can be called by
      * 
      * @since 1.0.0
      * @version 1.0.0
      * 
-     * @return 
+     * @return The command's aliases, empty by default
      */
-    public abstract String[] helpInfo();
+    public default String[] getAliases() {
+        return new String[0];
+    }
+    
+    /**
+     * Returns whether or not this command should run off the server thread.
+     * Asynchronous commands must not touch the bukkit API directly, and should
+     * hop back through {@link CommandHandler#getMainThreadExecutor()} instead.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true to execute on the command worker pool, false by default
+     */
+    public default boolean isAsync() {
+        return false;
+    }
+    
+    /**
+     * Returns the permission required to use and tab-complete this command
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The permission node, or null if none is required
+     */
+    public default String getPermission() {
+        return null;
+    }
+    
+    /**
+     * Returns the types of the arguments this command accepts, in order
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The argument types, empty by default
+     */
+    public default ArgumentType<?>[] getArguments() {
+        return new ArgumentType<?>[0];
+    }
+    
+    /**
+     * Returns the fixed tab-completion candidates for an argument. These are
+     * sorted and cached by {@link CommandHandler}, so they must not change
+     * after the command is registered.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The index of the argument, starting after the command name
+     * @return The candidates for the argument, or null to defer to bukkit's
+     *         player names. Taken from {@link #getArguments()} by default.
+     */
+    public default String[] getCompletions(int index) {
+        ArgumentType<?>[] args = this.getArguments();
+        return index < args.length ? args[index].getCompletions() : new String[0];
+    }
+    
+    /**
+     * Represents data put out by the help menu, or incorrect usage. Commands
+     * annotated with {@link CommandInfo} take their usage and description from
+     * the annotation instead.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The usage and description, null by default
+     */
+    public default String[] helpInfo() {
+        return null;
+    }
     
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.commands;
+
+import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.command.CommandArguments;
+import com.codelanx.plugintemplate.command.CommandInfo;
+import com.codelanx.plugintemplate.command.CommandNode;
+import com.codelanx.plugintemplate.command.MessageBuffer;
+import com.codelanx.plugintemplate.command.args.IntArgument;
+import com.codelanx.plugintemplate.listener.HandlerProfile;
+import com.codelanx.plugintemplate.metrics.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Displays the recorded execution times of every command, or the slowest
+ * event handlers
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@CommandInfo(name = "timings", usage = "/timings [reset|listeners [time|calls|p99] [count]]",
+        description = "Displays command and event handler execution times", permission = "plugintemplate.timings")
+public class TimingsCommand implements SubCommand {
+    
+    private static final IntArgument COUNT = new IntArgument(1, 100);
+    private static final Comparator<HandlerProfile> BY_TIME = new Comparator<HandlerProfile>() {
+
+        public int compare(HandlerProfile o1, HandlerProfile o2) {
+            return Long.compare(o2.getEstimatedTotal(), o1.getEstimatedTotal());
+        }
+
+    };
+    private static final Comparator<HandlerProfile> BY_CALLS = new Comparator<HandlerProfile>() {
+
+        public int compare(HandlerProfile o1, HandlerProfile o2) {
+            return Long.compare(o2.getCalls(), o1.getCalls());
+        }
+
+    };
+    private static final Comparator<HandlerProfile> BY_P99 = new Comparator<HandlerProfile>() {
+
+        public int compare(HandlerProfile o1, HandlerProfile o2) {
+            return Long.compare(o2.getTimings().getPercentile(0.99D), o1.getTimings().getPercentile(0.99D));
+        }
+
+    };
+    private final PluginTemplate plugin;
+    
+    public TimingsCommand(PluginTemplate plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean execute(CommandSender sender, CommandArguments args) {
+        List<CommandNode> nodes = this.plugin.getCommandHandler().getCommandNodes();
+        if (!args.isEmpty()) {
+            if (args.get(0).equalsIgnoreCase("listeners")) {
+                return this.listeners(sender, args.slice(1));
+            }
+            if (!args.get(0).equalsIgnoreCase("reset")) {
+                return false;
+            }
+            for (CommandNode node : nodes) {
+                node.getTimings().reset();
+            }
+            for (HandlerProfile profile : this.plugin.getListenerManager().getProfiles()) {
+                profile.reset();
+            }
+            new MessageBuffer(sender).line("&6Command and listener timings reset").flush();
+            return true;
+        }
+        MessageBuffer out = new MessageBuffer(sender).line("&6Command timings (p50 / p99 / max, ms):");
+        for (CommandNode node : nodes) {
+            LatencyHistogram h = node.getTimings();
+            out.line("&e%s &f%d calls: %.3f / %.3f / %.3f", node.getPath(), h.getCount(),
+                    h.getPercentile(0.5D) / 1e6D, h.getPercentile(0.99D) / 1e6D, h.getMax() / 1e6D);
+        }
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Displays the top event handlers, sorted by estimated total time, call
+     * count or 99th percentile
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param sender The {@link CommandSender} to report to
+     * @param args The sort order and number of handlers, both optional
+     * @return false if the arguments are invalid
+     */
+    private boolean listeners(CommandSender sender, CommandArguments args) {
+        String order = args.get(0, "time").toLowerCase();
+        Comparator<HandlerProfile> sort;
+        if (order.equals("time")) {
+            sort = TimingsCommand.BY_TIME;
+        } else if (order.equals("calls")) {
+            sort = TimingsCommand.BY_CALLS;
+        } else if (order.equals("p99")) {
+            sort = TimingsCommand.BY_P99;
+        } else {
+            return false;
+        }
+        int count = args.getInt(1, TimingsCommand.COUNT, 10);
+        if (args.hasError()) {
+            return false;
+        }
+        List<HandlerProfile> profiles = new ArrayList<HandlerProfile>(this.plugin.getListenerManager().getProfiles());
+        Collections.sort(profiles, sort);
+        MessageBuffer out = new MessageBuffer(sender).line("&6Event handlers by %s (calls, total ms, p99 / max us):", order);
+        for (HandlerProfile p : profiles.subList(0, Math.min(count, profiles.size()))) {
+            LatencyHistogram h = p.getTimings();
+            out.line("&e%s &7%s &f%d, %.1f, %.1f / %.1f", p.getName(), p.getEventType().getSimpleName(), p.getCalls(),
+                    p.getEstimatedTotal() / 1e6D, h.getPercentile(0.99D) / 1e3D, h.getMax() / 1e3D);
+        }
+        if (profiles.isEmpty()) {
+            out.line("&7No handlers are being profiled");
+        }
+        out.flush();
+        return true;
+    }
+
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command.processor;
+
+import com.codelanx.plugintemplate.command.CommandInfo;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Build-time processor for {@link CommandInfo}. Generates the
+ * {@code GeneratedCommands} table that {@code CommandHandler} registers its
+ * commands from, and a plugin.yml with a generated commands section, so no
+ * reflection or classpath scanning happens at startup.
+ * <br><br>
+ * The plugin.yml in the sources is read from the path passed with the
+ * {@code -Aplugintemplate.pluginYml=<path>} compiler option, and the
+ * generated one is written to {@code -Aplugintemplate.pluginYmlOutput=<path>}.
+ * The generated file lives outside the class output, so the build can copy
+ * it into the jar on every run, including incremental builds that skip the
+ * compiler.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@SupportedAnnotationTypes("com.codelanx.plugintemplate.command.CommandInfo")
+@SupportedOptions({CommandInfoProcessor.PLUGIN_YML_OPTION, CommandInfoProcessor.PLUGIN_YML_OUTPUT_OPTION})
+public class CommandInfoProcessor extends AbstractProcessor {
+
+    /** The compiler option holding the path of the plugin.yml in the sources */
+    public static final String PLUGIN_YML_OPTION = "plugintemplate.pluginYml";
+    /** The compiler option holding the path to write the generated plugin.yml to */
+    public static final String PLUGIN_YML_OUTPUT_OPTION = "plugintemplate.pluginYmlOutput";
+    /** Package of the generated table, shared with {@code CommandHandler} */
+    private static final String PACKAGE = "com.codelanx.plugintemplate.command";
+    /** Simple name of the generated table */
+    private static final String TABLE = "GeneratedCommands";
+    private static final String SUBCOMMAND = "com.codelanx.plugintemplate.command.commands.SubCommand";
+    private static final String PLUGIN = "com.codelanx.plugintemplate.PluginTemplate";
+    /** Whether or not the table has been written in an earlier round */
+    private boolean generated = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Collects every {@link CommandInfo} type of the first round and writes
+     * the command table and plugin.yml from them
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param annotations The annotations requested by this processor
+     * @param roundEnv The current round
+     * @return true, {@link CommandInfo} is claimed by this processor
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (this.generated || roundEnv.processingOver()) {
+            return true;
+        }
+        List<Entry> entries = new ArrayList<Entry>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(CommandInfo.class)) {
+            Entry entry = this.toEntry(element);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries, new Comparator<Entry>() {
+
+            public int compare(Entry o1, Entry o2) {
+                return o1.getPath().compareToIgnoreCase(o2.getPath());
+            }
+
+        });
+        this.generated = true;
+        try {
+            this.writeTable(entries);
+        } catch (IOException ex) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + CommandInfoProcessor.TABLE + ": " + ex.getMessage());
+            return true;
+        }
+        String yml = this.processingEnv.getOptions().get(CommandInfoProcessor.PLUGIN_YML_OPTION);
+        String output = this.processingEnv.getOptions().get(CommandInfoProcessor.PLUGIN_YML_OUTPUT_OPTION);
+        if (yml == null || output == null) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "No -A" + CommandInfoProcessor.PLUGIN_YML_OPTION + " and -A" + CommandInfoProcessor.PLUGIN_YML_OUTPUT_OPTION
+                    + " provided, plugin.yml commands not generated");
+        } else {
+            try {
+                this.writePluginYml(Paths.get(yml), Paths.get(output), entries);
+            } catch (IOException ex) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unable to write " + output + ": " + ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validates an annotated element and converts it into a table entry
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param element The annotated element
+     * @return The {@link Entry}, or null if the element is invalid
+     */
+    private Entry toEntry(Element element) {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            this.error(element, "@CommandInfo may only be placed on concrete classes");
+            return null;
+        }
+        TypeElement type = (TypeElement) element;
+        TypeMirror sub = this.processingEnv.getElementUtils().getTypeElement(CommandInfoProcessor.SUBCOMMAND).asType();
+        if (!this.processingEnv.getTypeUtils().isAssignable(type.asType(), sub)) {
+            this.error(element, "@CommandInfo classes must implement SubCommand");
+            return null;
+        }
+        Boolean takesPlugin = null;
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed.getKind() != ElementKind.CONSTRUCTOR || !enclosed.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            ExecutableElement ctor = (ExecutableElement) enclosed;
+            if (ctor.getParameters().isEmpty() && takesPlugin == null) {
+                takesPlugin = false;
+            } else if (ctor.getParameters().size() == 1
+                    && ctor.getParameters().get(0).asType().toString().equals(CommandInfoProcessor.PLUGIN)) {
+                takesPlugin = true;
+            }
+        }
+        if (takesPlugin == null) {
+            this.error(element, "@CommandInfo classes need a public no-arg or PluginTemplate constructor");
+            return null;
+        }
+        CommandInfo info = element.getAnnotation(CommandInfo.class);
+        return new Entry(type.getQualifiedName().toString(), takesPlugin, info);
+    }
+
+    /**
+     * Writes the {@code GeneratedCommands} source file
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param entries The commands to register, in order
+     * @throws IOException If the source file cannot be written
+     */
+    private void writeTable(List<Entry> entries) throws IOException {
+        JavaFileObject file = this.processingEnv.getFiler().createSourceFile(
+                CommandInfoProcessor.PACKAGE + "." + CommandInfoProcessor.TABLE);
+        Writer out = file.openWriter();
+        try {
+            out.write("package " + CommandInfoProcessor.PACKAGE + ";\n\n");
+            out.write("import " + CommandInfoProcessor.PLUGIN + ";\n\n");
+            out.write("/**\n * Command table generated from {@link CommandInfo} annotations, do not edit\n */\n");
+            out.write("final class " + CommandInfoProcessor.TABLE + " {\n\n");
+            out.write("    private " + CommandInfoProcessor.TABLE + "() {\n    }\n\n");
+            out.write("    static void register(CommandHandler handler, PluginTemplate plugin) {\n");
+            for (Entry entry : entries) {
+                CommandInfo info = entry.info;
+                StringBuilder aliases = new StringBuilder("new String[] {");
+                for (int i = 0; i < info.aliases().length; i++) {
+                    aliases.append(i > 0 ? ", " : "").append(literal(info.aliases()[i]));
+                }
+                aliases.append('}');
+                out.write("        handler.registerCommand("
+                        + (info.parent().isEmpty() ? "null" : literal(info.parent())) + ", "
+                        + "new " + entry.type + "(" + (entry.takesPlugin ? "plugin" : "") + "), "
+                        + literal(info.name()) + ", "
+                        + aliases + ", "
+                        + (info.permission().isEmpty() ? "null" : literal(info.permission())) + ", "
+                        + literal(info.usage()) + ", "
+                        + literal(info.description()) + ", "
+                        + info.async() + ");\n");
+            }
+            out.write("    }\n\n}\n");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Copies the plugin.yml, replacing its commands section with the
+     * top-level commands of the table
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param source The plugin.yml in the sources
+     * @param output Where to write the generated plugin.yml
+     * @param entries The commands in the table
+     * @throws IOException If a file cannot be read or written
+     */
+    private void writePluginYml(Path source, Path output, List<Entry> entries) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        boolean skipping = false;
+        for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+            if (line.startsWith("commands:")) {
+                skipping = true;
+            } else if (skipping && !line.isEmpty() && !Character.isWhitespace(line.charAt(0))) {
+                skipping = false;
+            }
+            if (!skipping) {
+                lines.add(line);
+            }
+        }
+        Map<String, CommandInfo> top = new LinkedHashMap<String, CommandInfo>();
+        for (Entry entry : entries) {
+            if (entry.info.parent().isEmpty()) {
+                top.put(entry.info.name(), entry.info);
+            } else {
+                String root = entry.info.parent().split(" ")[0];
+                if (!top.containsKey(root)) {
+                    top.put(root, null);
+                }
+            }
+        }
+        if (!top.isEmpty()) {
+            lines.add("commands:");
+            for (Map.Entry<String, CommandInfo> cmd : top.entrySet()) {
+                lines.add("  " + cmd.getKey() + ":");
+                CommandInfo info = cmd.getValue();
+                if (info == null) {
+                    continue;
+                }
+                lines.add("    description: " + yaml(info.description()));
+                lines.add("    usage: " + yaml(info.usage()));
+                if (info.aliases().length > 0) {
+                    StringBuilder sb = new StringBuilder("    aliases: [");
+                    for (int i = 0; i < info.aliases().length; i++) {
+                        sb.append(i > 0 ? ", " : "").append(yaml(info.aliases()[i]));
+                    }
+                    lines.add(sb.append(']').toString());
+                }
+                if (!info.permission().isEmpty()) {
+                    lines.add("    permission: " + yaml(info.permission()));
+                }
+            }
+        }
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.write(output, lines, StandardCharsets.UTF_8);
+    }
+
+    private void error(Element element, String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Escapes a string as a java literal
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param value The value to escape
+     * @return The quoted literal
+     */
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Escapes a string as a single-quoted yaml scalar
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param value The value to escape
+     * @return The quoted scalar
+     */
+    private static String yaml(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    /**
+     * A validated {@link CommandInfo} type
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Entry {
+
+        private final String type;
+        private final boolean takesPlugin;
+        private final CommandInfo info;
+
+        private Entry(String type, boolean takesPlugin, CommandInfo info) {
+            this.type = type;
+            this.takesPlugin = takesPlugin;
+            this.info = info;
+        }
+
+        private String getPath() {
+            return this.info.parent().isEmpty() ? this.info.name() : this.info.parent() + " " + this.info.name();
+        }
+
+    }
+
+}
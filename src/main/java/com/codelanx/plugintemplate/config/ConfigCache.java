@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+/**
+ * Compact binary copy of a validated {@link ConfigSnapshot}, keyed by a
+ * digest of the source yaml and the {@link ConfigValues} schema. When the
+ * digest of config.yml matches, the snapshot is read straight from the cache
+ * and the yaml is never parsed.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class ConfigCache {
+
+    private static final int MAGIC = 0x504C5443;
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte SECTION = 6;
+
+    private ConfigCache() {
+    }
+
+    /**
+     * Computes the cache key for the given yaml content under the current
+     * {@link ConfigValues} schema
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param content The raw bytes of config.yml
+     * @return The SHA-256 digest of the schema and content
+     */
+    static byte[] digest(byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        for (ConfigValues conf : ConfigValues.values()) {
+            digest.update(conf.getSignature().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return digest.digest(content);
+    }
+
+    /**
+     * Reads the cached values if the cache was written for the given digest
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param file The cache file
+     * @param digest The digest of the current config.yml
+     * @return The values indexed by {@link ConfigValues#ordinal()}, or null
+     *         if the cache is missing, stale or unreadable
+     */
+    static Object[] read(File file, byte[] digest) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != ConfigCache.MAGIC || in.readByte() != ConfigCache.VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[in.readUnsignedByte()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, digest)) {
+                return null;
+            }
+            ConfigValues[] keys = ConfigValues.values();
+            if (in.readInt() != keys.length) {
+                return null;
+            }
+            Object[] back = new Object[keys.length];
+            for (int i = 0; i < back.length; i++) {
+                back[i] = ConfigCache.readValue(in);
+            }
+            return back;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the values of a snapshot to the cache. The cache is written to a
+     * temporary file and moved into place, so a crash never leaves a partial
+     * cache behind. Snapshots holding values the cache cannot represent are
+     * not cached.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param file The cache file
+     * @param digest The digest of the config.yml the snapshot was built from
+     * @param snapshot The validated snapshot
+     * @return true if the cache was written
+     * @throws IOException If the cache could not be written
+     */
+    static boolean write(File file, byte[] digest, ConfigSnapshot snapshot) throws IOException {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        boolean complete = true;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(ConfigCache.MAGIC);
+            out.writeByte(ConfigCache.VERSION);
+            out.writeByte(digest.length);
+            out.write(digest);
+            ConfigValues[] keys = ConfigValues.values();
+            out.writeInt(keys.length);
+            for (ConfigValues key : keys) {
+                if (!ConfigCache.writeValue(out, snapshot.get(key))) {
+                    complete = false;
+                    break;
+                }
+            }
+        }
+        if (!complete) {
+            Files.deleteIfExists(temp.toPath());
+            Files.deleteIfExists(file.toPath());
+            return false;
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * Reads a single tagged value, also used by {@link LoopbackConfigSource}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param in The stream to read from
+     * @return The value, which may be null
+     * @throws IOException If the stream ends or holds an unknown tag
+     */
+    static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case ConfigCache.NULL:
+                return null;
+            case ConfigCache.BOOLEAN:
+                return in.readBoolean();
+            case ConfigCache.INT:
+                return in.readInt();
+            case ConfigCache.LONG:
+                return in.readLong();
+            case ConfigCache.DOUBLE:
+                return in.readDouble();
+            case ConfigCache.STRING:
+                return in.readUTF();
+            case ConfigCache.SECTION:
+                MemoryConfiguration section = new MemoryConfiguration();
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    String path = in.readUTF();
+                    Object value = ConfigCache.readValue(in);
+                    if (value instanceof ConfigurationSection) {
+                        section.createSection(path);
+                    } else {
+                        section.set(path, value);
+                    }
+                }
+                return section;
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * Writes a single tagged value, also used by {@link LoopbackConfigSource}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param out The stream to write to
+     * @param value The value, which may be null
+     * @return false if the value has no binary representation
+     * @throws IOException If the stream cannot be written
+     */
+    static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(ConfigCache.NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(ConfigCache.BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(ConfigCache.INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(ConfigCache.LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(ConfigCache.DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(ConfigCache.STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof ConfigurationSection || value instanceof Map) {
+            Map<?, ?> values = value instanceof Map ? (Map<?, ?>) value : ((ConfigurationSection) value).getValues(true);
+            out.writeByte(ConfigCache.SECTION);
+            out.writeInt(values.size());
+            for (Map.Entry<?, ?> entry : values.entrySet()) {
+                out.writeUTF(String.valueOf(entry.getKey()));
+                if (entry.getValue() instanceof ConfigurationSection) {
+                    out.writeByte(ConfigCache.SECTION);
+                    out.writeInt(0);
+                } else if (!ConfigCache.writeValue(out, entry.getValue())) {
+                    return false;
+                }
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A versioned set of changes to the configuration, published through a
+ * {@link ConfigSource}. Each change maps a full value path to its new value.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ConfigDiff {
+
+    private final long version;
+    private final Map<String, Object> changes;
+
+    /**
+     * {@link ConfigDiff} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param version The version this diff brings the configuration to
+     * @param changes The new values, keyed by full path
+     */
+    public ConfigDiff(long version, Map<String, Object> changes) {
+        this.version = version;
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<String, Object>(changes));
+    }
+
+    /**
+     * Returns the version this diff brings the configuration to. Versions
+     * increase with every diff published to a source.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The version of this diff
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the changed values, keyed by full path
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return An unmodifiable map of changes
+     */
+    public Map<String, Object> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Writes this diff in the binary form used by
+     * {@link LoopbackConfigSource}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param out The stream to write to
+     * @throws IOException If the stream cannot be written, or a value has no
+     *                     binary representation
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(this.version);
+        ConfigDiff.writeChanges(out, this.changes);
+    }
+
+    /**
+     * Reads a diff written by {@link #write(DataOutputStream)}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param in The stream to read from
+     * @return The diff
+     * @throws IOException If the stream ends or is malformed
+     */
+    static ConfigDiff read(DataInputStream in) throws IOException {
+        long version = in.readLong();
+        return new ConfigDiff(version, ConfigDiff.readChanges(in));
+    }
+
+    /**
+     * Writes a map of changes as a count followed by path and value pairs
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param out The stream to write to
+     * @param changes The changes to write
+     * @throws IOException If the stream cannot be written, or a value has no
+     *                     binary representation
+     */
+    static void writeChanges(DataOutputStream out, Map<String, Object> changes) throws IOException {
+        out.writeInt(changes.size());
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            if (!ConfigCache.writeValue(out, entry.getValue())) {
+                throw new IOException("Cannot send value of " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads a map of changes written by
+     * {@link #writeChanges(DataOutputStream, Map)}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param in The stream to read from
+     * @return The changes, in the order they were written
+     * @throws IOException If the stream ends or is malformed
+     */
+    static Map<String, Object> readChanges(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> back = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < size; i++) {
+            String path = in.readUTF();
+            back.put(path, ConfigCache.readValue(in));
+        }
+        return back;
+    }
+
+}
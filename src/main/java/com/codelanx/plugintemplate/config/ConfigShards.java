@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * A configuration split across one yaml file per key within a directory,
+ * such as one file per world or arena. Each shard is parsed on first access
+ * and held through a {@link SoftReference}, so shards that are not in use can
+ * be reclaimed under memory pressure and are parsed again when next needed.
+ * Shards can also be unloaded explicitly, for instance when their world
+ * unloads.
+ * <br><br>
+ * Changes to a shard must be passed to {@link #save(String)}; unsaved changes
+ * are lost if the shard is unloaded or reclaimed.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ConfigShards {
+
+    private final ConfigurationLoader loader;
+    private final File directory;
+    private final ScheduledExecutorService writes;
+    private final ConcurrentMap<String, Shard> shards = new ConcurrentHashMap<String, Shard>();
+    /** Writers of unloaded shards whose final write has not finished yet */
+    private final ConcurrentMap<String, ConfigWriter> closing = new ConcurrentHashMap<String, ConfigWriter>();
+
+    /**
+     * {@link ConfigShards} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param loader The owning {@link ConfigurationLoader}
+     * @param directory The directory holding the shard files
+     * @param writes The background thread saves are written on
+     */
+    ConfigShards(ConfigurationLoader loader, File directory, ScheduledExecutorService writes) {
+        this.loader = loader;
+        this.directory = directory;
+        this.writes = writes;
+    }
+
+    /**
+     * Gets a shard, parsing its file if it is not loaded. A shard without a
+     * file is returned empty, and its file is created on the first save.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The shard name, such as a world name
+     * @return The shard configuration
+     */
+    public YamlConfiguration get(String name) {
+        return this.getShard(name).load();
+    }
+
+    /**
+     * Returns whether a shard is currently held in memory
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The shard name
+     * @return {@code true} if loaded, {@code false} otherwise
+     */
+    public boolean isLoaded(String name) {
+        Shard shard = this.shards.get(name);
+        return shard != null && shard.ref.get() != null;
+    }
+
+    /**
+     * Queues a loaded shard to be written to disk in the background. Does
+     * nothing if the shard is not loaded.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The shard name
+     */
+    public void save(String name) {
+        Shard shard = this.shards.get(name);
+        YamlConfiguration yaml = shard == null ? null : shard.ref.get();
+        if (yaml != null) {
+            this.directory.mkdirs();
+            shard.writer.save(yaml.saveToString());
+        }
+    }
+
+    /**
+     * Drops a shard from memory and queues any pending save of it to be
+     * written in the background. Loading the shard again before that write
+     * finishes waits for it.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The shard name
+     */
+    public void unload(final String name) {
+        Shard shard = this.shards.remove(name);
+        if (shard != null) {
+            final ConfigWriter writer = shard.writer;
+            this.closing.put(name, writer);
+            writer.closeAsync(new Runnable() {
+
+                public void run() {
+                    closing.remove(name, writer);
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Writes any pending saves. Called from
+     * {@link ConfigurationLoader#cleanup()}.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void close() {
+        for (Shard shard : this.shards.values()) {
+            shard.writer.close();
+        }
+    }
+
+    private Shard getShard(String name) {
+        if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid shard name: " + name);
+        }
+        Shard back = this.shards.get(name);
+        if (back == null) {
+            File file = new File(this.directory, name + ".yml");
+            ConfigWriter writer = this.closing.get(name);
+            if (writer == null) {
+                writer = new ConfigWriter(this.loader, file, this.writes);
+            }
+            Shard created = new Shard(file, writer);
+            back = this.shards.putIfAbsent(name, created);
+            if (back == null) {
+                back = created;
+            }
+        }
+        return back;
+    }
+
+    /**
+     * A single shard file and its softly held contents
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Shard {
+
+        private final File file;
+        private final ConfigWriter writer;
+        private volatile SoftReference<YamlConfiguration> ref = new SoftReference<YamlConfiguration>(null);
+
+        private Shard(File file, ConfigWriter writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+
+        private YamlConfiguration load() {
+            YamlConfiguration back = this.ref.get();
+            if (back == null) {
+                synchronized (this) {
+                    back = this.ref.get();
+                    if (back == null) {
+                        this.writer.close();
+                        back = YamlConfiguration.loadConfiguration(this.file);
+                        this.ref = new SoftReference<YamlConfiguration>(back);
+                    }
+                }
+            }
+            return back;
+        }
+
+    }
+
+}
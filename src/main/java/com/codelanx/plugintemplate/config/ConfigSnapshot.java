@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Immutable, fully resolved view of every {@link ConfigValues} entry. Values
+ * are stored in typed arrays indexed by {@link ConfigValues#ordinal()}, so a
+ * read is a single array load with no locking, boxing or path walking. Only
+ * the arrays matching an entry's {@link ConfigType} are filled; the values
+ * have already been coerced by validation, so no type checks happen here.
+ * Sections are copied into unmodifiable maps, so they compare by value and
+ * cannot change under a reader.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ConfigSnapshot {
+
+    private final Object[] values;
+    private final String[] strings;
+    private final int[] ints;
+    private final long[] longs;
+    private final double[] doubles;
+    private final boolean[] booleans;
+
+    /**
+     * Resolves every {@link ConfigValues} entry from a configuration
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param yaml The configuration to resolve from
+     */
+    public ConfigSnapshot(Configuration yaml) {
+        this(ConfigSnapshot.resolve(yaml));
+    }
+
+    /**
+     * Builds a snapshot from values that have already been validated, such
+     * as those read from a {@link ConfigCache}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param values The values indexed by {@link ConfigValues#ordinal()}
+     */
+    ConfigSnapshot(Object[] values) {
+        ConfigValues[] keys = ConfigValues.values();
+        this.values = values;
+        this.strings = new String[keys.length];
+        this.ints = new int[keys.length];
+        this.longs = new long[keys.length];
+        this.doubles = new double[keys.length];
+        this.booleans = new boolean[keys.length];
+        for (ConfigValues key : keys) {
+            int i = key.ordinal();
+            Object value = values[i];
+            switch (key.getType()) {
+                case INT:
+                case LONG:
+                case DOUBLE:
+                    if (value instanceof Number) {
+                        Number n = (Number) value;
+                        this.ints[i] = n.intValue();
+                        this.longs[i] = n.longValue();
+                        this.doubles[i] = n.doubleValue();
+                    }
+                    break;
+                case BOOLEAN:
+                    this.booleans[i] = value instanceof Boolean && (Boolean) value;
+                    break;
+                case STRING:
+                    this.strings[i] = value == null ? null : value.toString();
+                    break;
+                case SECTION:
+                    values[i] = ConfigSnapshot.freeze(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Copies a section into an unmodifiable map of its leaf values
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param value The section, or an already flattened map
+     * @return The leaf values keyed by their full path, or null if unset
+     */
+    private static Map<String, Object> freeze(Object value) {
+        Map<String, Object> back = new LinkedHashMap<String, Object>();
+        if (value instanceof ConfigurationSection) {
+            for (Map.Entry<String, Object> entry : ((ConfigurationSection) value).getValues(true).entrySet()) {
+                if (!(entry.getValue() instanceof ConfigurationSection)) {
+                    back.put(entry.getKey(), entry.getValue());
+                }
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                back.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        } else {
+            return null;
+        }
+        return Collections.unmodifiableMap(back);
+    }
+
+    private static Object[] resolve(Configuration yaml) {
+        ConfigValues[] keys = ConfigValues.values();
+        Object[] back = new Object[keys.length];
+        for (ConfigValues key : keys) {
+            back[key.ordinal()] = yaml.get(key.getPath(), key.getDefault());
+        }
+        return back;
+    }
+
+    /**
+     * Gets the raw value of an entry
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return The raw value, or its default if unset
+     */
+    public Object get(ConfigValues key) {
+        return this.values[key.ordinal()];
+    }
+
+    /**
+     * Gets a string value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return String value
+     */
+    public String getString(ConfigValues key) {
+        return this.strings[key.ordinal()];
+    }
+
+    /**
+     * Gets a section value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return An unmodifiable map of the section's leaf values keyed by
+     *         their full path, e.g. {@code "help.burst"}, or null if unset
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getSection(ConfigValues key) {
+        return (Map<String, Object>) this.values[key.ordinal()];
+    }
+
+    /**
+     * Gets an int value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return int value
+     */
+    public int getInt(ConfigValues key) {
+        return this.ints[key.ordinal()];
+    }
+
+    /**
+     * Gets a long value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return long value
+     */
+    public long getLong(ConfigValues key) {
+        return this.longs[key.ordinal()];
+    }
+
+    /**
+     * Gets a double value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return double value
+     */
+    public double getDouble(ConfigValues key) {
+        return this.doubles[key.ordinal()];
+    }
+
+    /**
+     * Gets a boolean value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The entry to read
+     * @return boolean value
+     */
+    public boolean getBoolean(ConfigValues key) {
+        return this.booleans[key.ordinal()];
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A shared source of versioned configuration changes, polled by every server
+ * running the plugin so their configurations stay in sync.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public interface ConfigSource {
+
+    /**
+     * Fetches every diff published after the given version
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param since The last version applied locally, 0 if none
+     * @return The newer diffs in ascending version order, empty if up to date
+     * @throws IOException If the source cannot be read
+     */
+    public List<ConfigDiff> poll(long since) throws IOException;
+
+    /**
+     * Publishes a change to every server using this source
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param changes The new values, keyed by full path
+     * @return The version assigned to the change
+     * @throws IOException If the change cannot be published
+     */
+    public long publish(Map<String, Object> changes) throws IOException;
+
+    /**
+     * Identifies the history that versions are counted in, as of the last
+     * poll. It changes when the source starts numbering from the beginning
+     * again, such as a restarted in-memory server, and tells clients to
+     * discard the version they have applied.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The epoch of the last poll, 0 for a source that never restarts
+     */
+    public long getEpoch();
+
+    /**
+     * Releases any resources held by this source
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void close();
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Polls a {@link ConfigSource} on a daemon thread and applies any newer
+ * diffs to the {@link ConfigurationLoader}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class ConfigSync implements Runnable {
+
+    private final ConfigurationLoader loader;
+    private final ConfigSource source;
+    private final long interval;
+    private final ScheduledExecutorService executor;
+    /** Whether the last poll failed, so repeated failures are logged once */
+    private boolean failing = false;
+
+    /**
+     * {@link ConfigSync} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param loader The {@link ConfigurationLoader} to apply diffs to
+     * @param source The {@link ConfigSource} to poll
+     * @param interval Seconds between polls
+     */
+    ConfigSync(ConfigurationLoader loader, ConfigSource source, long interval) {
+        this.loader = loader;
+        this.source = source;
+        this.interval = interval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PluginTemplate-ConfigSync");
+                t.setDaemon(true);
+                return t;
+            }
+
+        });
+    }
+
+    /**
+     * Starts polling, beginning immediately
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void start() {
+        this.executor.scheduleWithFixedDelay(this, 0, this.interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops polling and closes the source
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void stop() {
+        this.executor.shutdownNow();
+        this.source.close();
+    }
+
+    /**
+     * Returns the source being polled
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The {@link ConfigSource}
+     */
+    ConfigSource getSource() {
+        return this.source;
+    }
+
+    /**
+     * Polls the source once and applies anything new
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void run() {
+        List<ConfigDiff> diffs;
+        try {
+            diffs = this.source.poll(this.loader.getSyncVersion());
+            long epoch = this.source.getEpoch();
+            if (epoch != this.loader.getSyncEpoch()) {
+                if (this.loader.getSyncVersion() > 0) {
+                    this.loader.getLogger().log(Level.INFO, "Shared config source restarted its versions, syncing from the start");
+                }
+                this.loader.resetSync(epoch);
+                diffs = this.source.poll(0);
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (!this.failing) {
+                this.loader.getLogger().log(Level.WARNING, "Unable to poll shared config, retrying quietly", ex);
+                this.failing = true;
+            }
+            return;
+        }
+        if (this.failing) {
+            this.loader.getLogger().log(Level.INFO, "Shared config reachable again");
+            this.failing = false;
+        }
+        if (!diffs.isEmpty()) {
+            try {
+                this.loader.apply(diffs);
+            } catch (RuntimeException ex) {
+                this.loader.getLogger().log(Level.SEVERE, "Error applying shared config", ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * The value types a {@link ConfigValues} entry can declare. Each type knows
+ * how to coerce a raw yaml value into its canonical java form.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public enum ConfigType {
+
+    /** A true/false value, stored as {@link Boolean} */
+    BOOLEAN("boolean") {
+        @Override
+        public Object coerce(Object raw) {
+            if (raw instanceof Boolean) {
+                return raw;
+            }
+            if (raw instanceof String) {
+                String s = ((String) raw).trim();
+                if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false")) {
+                    return Boolean.valueOf(s);
+                }
+            }
+            return null;
+        }
+    },
+    /** A whole number within int range, stored as {@link Integer} */
+    INT("whole number") {
+        @Override
+        public Object coerce(Object raw) {
+            Object back = LONG.coerce(raw);
+            if (back == null) {
+                return null;
+            }
+            long value = (Long) back;
+            return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? null : (int) value;
+        }
+    },
+    /** A whole number, stored as {@link Long} */
+    LONG("whole number") {
+        @Override
+        public Object coerce(Object raw) {
+            if (raw instanceof Integer || raw instanceof Long || raw instanceof Short || raw instanceof Byte) {
+                return ((Number) raw).longValue();
+            }
+            if (raw instanceof String) {
+                try {
+                    return Long.parseLong(((String) raw).trim());
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    },
+    /** A decimal number, stored as {@link Double} */
+    DOUBLE("number") {
+        @Override
+        public Object coerce(Object raw) {
+            if (raw instanceof Number) {
+                return ((Number) raw).doubleValue();
+            }
+            if (raw instanceof String) {
+                try {
+                    return Double.parseDouble(((String) raw).trim());
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    },
+    /** A text value, stored as {@link String} */
+    STRING("text") {
+        @Override
+        public Object coerce(Object raw) {
+            if (raw instanceof String) {
+                return raw;
+            }
+            return raw instanceof Number || raw instanceof Boolean ? raw.toString() : null;
+        }
+    },
+    /**
+     * A nested section, read as {@link ConfigurationSection} and held by
+     * {@link ConfigSnapshot} as an unmodifiable map of its leaf values
+     */
+    SECTION("section") {
+        @Override
+        public Object coerce(Object raw) {
+            return raw instanceof ConfigurationSection ? raw : null;
+        }
+    };
+
+    /** Name of the type in validation messages */
+    private final String description;
+
+    /**
+     * Private constructor for {@link ConfigType}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param description Name of the type in validation messages
+     */
+    private ConfigType(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Converts a raw yaml value into this type. Only runs while validating a
+     * freshly loaded file, never on reads.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param raw The raw value, never null
+     * @return The coerced value, or null if it cannot be represented
+     */
+    public abstract Object coerce(Object raw);
+
+    /**
+     * Returns the name of this type in validation messages
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The type description
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+}
@@ -19,8 +19,11 @@
  */
 package com.codelanx.plugintemplate.config;
 
+import java.util.regex.Pattern;
+
 /**
- * Holds string instances of config values
+ * Holds string instances of config values, along with the schema each value
+ * is validated against when the configuration is loaded
  *
  * @since 1.0.0
  * @author 1Rogue
@@ -28,12 +31,50 @@ package com.codelanx.plugintemplate.config;
  */
 public enum ConfigValues {
 
-    DEBUG_LEVEL("general.debug-level", 0),
-    UPDATE_CHECK("update.check", true),
-    UPDATE_DOWNLOAD("update.download", true);
+    DEBUG_LEVEL("general.debug-level", ConfigType.INT, 0, 0, 3,
+            "Verbosity of debug output, 0 to disable"),
+    CONFIG_WATCH("general.watch-config", ConfigType.BOOLEAN, true,
+            "Reload config.yml automatically when it changes"),
+    CONFIG_SYNC_SOURCE("general.sync.source", "none", "none|directory|loopback",
+            "Where to pull shared config changes from: none, directory or loopback"),
+    CONFIG_SYNC_DIRECTORY("general.sync.directory", ConfigType.STRING, "sync",
+            "Shared directory of config diffs, relative to the data folder unless absolute"),
+    CONFIG_SYNC_PORT("general.sync.port", ConfigType.INT, 25580, 1, 65535,
+            "Port of the loopback config server"),
+    CONFIG_SYNC_INTERVAL("general.sync.interval", ConfigType.INT, 30, 1, 3600,
+            "Seconds between polls of the shared config source"),
+    UPDATE_CHECK("update.check", ConfigType.BOOLEAN, true,
+            "Check for a newer version on startup"),
+    UPDATE_DOWNLOAD("update.download", ConfigType.BOOLEAN, true,
+            "Download newer versions automatically"),
+    COMMAND_ASYNC_THREADS("commands.async-threads", ConfigType.INT, 2, 1, 64,
+            "Worker threads for asynchronous commands"),
+    COMMAND_RATE_BURST("commands.rate-limit.burst", ConfigType.INT, 5, 0, Integer.MAX_VALUE,
+            "Commands a player may run in a row, 0 to disable rate limiting"),
+    COMMAND_RATE_PERIOD("commands.rate-limit.period", ConfigType.INT, 1000, 0, Integer.MAX_VALUE,
+            "Milliseconds for a single command use to be refunded"),
+    COMMAND_RATE_OVERRIDES("commands.rate-limit.commands", ConfigType.SECTION, null,
+            "Burst and period overrides, keyed by command path"),
+    LISTENER_DISABLED("listeners.disabled", "", "[\\w\\-]*(\\s*,\\s*[\\w\\-]+)*",
+            "Comma-separated names of listeners to turn off"),
+    LISTENER_ASYNC_THREADS("listeners.async-threads", ConfigType.INT, 1, 1, 16,
+            "Worker threads for asynchronous event handlers"),
+    LISTENER_PROFILE_SAMPLE("listeners.profile-sample", ConfigType.INT, 16, 0, 1000000,
+            "Time one in this many event handler calls, 0 to turn the profiler off"),
+    LISTENER_EXAMPLE("listeners.example", ConfigType.BOOLEAN, true,
+            "Whether the example listener is active"),
+    TASK_TICK_BUDGET("scheduler.tick-budget-ns", ConfigType.INT, 5000000, 100000, 50000000,
+            "Nanoseconds per tick spent on long-running command tasks"),
+    TASK_PROGRESS_INTERVAL("scheduler.progress-interval", ConfigType.INT, 100, 0, Integer.MAX_VALUE,
+            "Ticks between progress reports of long-running tasks, 0 to disable");
     
     private final String key;
     private final Object def;
+    private final ConfigType type;
+    private final double min;
+    private final double max;
+    private final Pattern pattern;
+    private final String description;
 
     /**
      * private constructor for {@link ConfigValues}
@@ -42,10 +83,68 @@ public enum ConfigValues {
      * @version 1.0.0
      *
      * @param key The string path to the value
+     * @param type The type of the value
+     * @param def The default value
+     * @param description What the value controls
+     */
+    private ConfigValues(String key, ConfigType type, Object def, String description) {
+        this(key, type, def, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null, description);
+    }
+
+    /**
+     * private constructor for {@link ConfigValues} with an inclusive range
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The string path to the value
+     * @param type The numeric type of the value
+     * @param def The default value
+     * @param min The smallest valid value
+     * @param max The largest valid value
+     * @param description What the value controls
      */
-    private ConfigValues(String key, Object def) {
+    private ConfigValues(String key, ConfigType type, Number def, double min, double max, String description) {
+        this(key, type, def, min, max, null, description);
+    }
+
+    /**
+     * private constructor for {@link ConfigValues} with a pattern
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The string path to the value
+     * @param def The default value
+     * @param regex The pattern a valid value must match in full
+     * @param description What the value controls
+     */
+    private ConfigValues(String key, String def, String regex, String description) {
+        this(key, ConfigType.STRING, def, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Pattern.compile(regex), description);
+    }
+
+    /**
+     * private constructor for {@link ConfigValues} all others delegate to
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The string path to the value
+     * @param type The type of the value
+     * @param def The default value
+     * @param min The smallest valid value
+     * @param max The largest valid value
+     * @param pattern The pattern a valid value must match, or null
+     * @param description What the value controls
+     */
+    private ConfigValues(String key, ConfigType type, Object def, double min, double max, Pattern pattern, String description) {
         this.key = key;
+        this.type = type;
         this.def = def;
+        this.min = min;
+        this.max = max;
+        this.pattern = pattern;
+        this.description = description;
     }
 
     /**
@@ -85,4 +184,72 @@ public enum ConfigValues {
     public Object getDefault() {
         return this.def;
     }
+
+    /**
+     * Returns the type of the value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The value's {@link ConfigType}
+     */
+    public ConfigType getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns a description of what the value controls
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The value's description
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Checks a value of this entry's type against its range or pattern
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param value A value already coerced by {@link #getType()}
+     * @return A description of the problem, or null if the value is valid
+     */
+    public String check(Object value) {
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            if (d < this.min || d > this.max) {
+                return value + " is outside of the range " + ConfigValues.format(this.min)
+                        + " to " + ConfigValues.format(this.max);
+            }
+        }
+        if (this.pattern != null && !this.pattern.matcher(value.toString()).matches()) {
+            return "'" + value + "' does not match " + this.pattern.pattern();
+        }
+        return null;
+    }
+
+    /**
+     * Returns a string covering everything validation depends on for this
+     * entry, used to invalidate cached values when the schema changes
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The schema signature of this entry
+     */
+    String getSignature() {
+        return this.name() + '|' + this.key + '|' + this.type + '|' + this.def + '|'
+                + this.min + '|' + this.max + '|' + (this.pattern == null ? "" : this.pattern.pattern());
+    }
+
+    private static String format(double bound) {
+        if (Double.isInfinite(bound)) {
+            return bound < 0 ? "-inf" : "inf";
+        }
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
 }
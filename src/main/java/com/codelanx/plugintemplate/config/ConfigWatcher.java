@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches the configuration file and reloads it on a daemon thread whenever
+ * it changes. Bursts of events, as editors tend to produce when saving, are
+ * collapsed into a single reload.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class ConfigWatcher implements Runnable {
+
+    /** Milliseconds to wait for further events before reloading */
+    private static final long SETTLE_TIME = 250L;
+    private final ConfigurationLoader loader;
+    private final Path file;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    /**
+     * {@link ConfigWatcher} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param loader The {@link ConfigurationLoader} to reload
+     * @param file The configuration file to watch
+     * @throws IOException If the watch service cannot be created
+     */
+    ConfigWatcher(ConfigurationLoader loader, Path file) throws IOException {
+        this.loader = loader;
+        this.file = file;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        file.getParent().register(this.watcher,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this, "PluginTemplate-ConfigWatcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching and ends the watcher thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void stop() {
+        try {
+            this.watcher.close();
+        } catch (IOException ex) {
+            this.loader.getLogger().log(Level.WARNING, "Error closing config watcher", ex);
+        }
+    }
+
+    /**
+     * Waits for changes to the configuration file and reloads it
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watcher.take();
+                boolean changed = this.drain(key);
+                WatchKey more;
+                while ((more = this.watcher.poll(ConfigWatcher.SETTLE_TIME, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= this.drain(more);
+                }
+                if (changed) {
+                    try {
+                        this.loader.reload();
+                    } catch (RuntimeException ex) {
+                        this.loader.getLogger().log(Level.SEVERE, "Error reloading config", ex);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // stopped
+        }
+    }
+
+    /**
+     * Consumes the events of a key
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The signalled key
+     * @return true if any event concerned the configuration file
+     */
+    private boolean drain(WatchKey key) {
+        boolean back = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (context instanceof Path && this.file.getFileName().equals(context)) {
+                back = true;
+            }
+        }
+        key.reset();
+        return back;
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * Debounced write-behind for the configuration file. Saves are coalesced on
+ * a background thread, skipped when the content matches what is already on
+ * disk, and written through a synced temporary file that is atomically
+ * renamed over the target.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class ConfigWriter {
+
+    /** Milliseconds to wait for further saves before writing */
+    private static final long DEBOUNCE = 500L;
+    private final ConfigurationLoader loader;
+    private final File file;
+    /** Content waiting to be written, null if nothing is pending */
+    private final AtomicReference<String> pending = new AtomicReference<String>();
+    private final ScheduledExecutorService executor;
+    /** Content last known to be on disk */
+    private volatile String written;
+
+    /**
+     * {@link ConfigWriter} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param loader The owning {@link ConfigurationLoader}
+     * @param file The file to write
+     * @param executor The background thread writes are performed on
+     */
+    ConfigWriter(ConfigurationLoader loader, File file, ScheduledExecutorService executor) {
+        this.loader = loader;
+        this.file = file;
+        this.executor = executor;
+        if (file.exists()) {
+            try {
+                this.written = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                this.written = null;
+            }
+        }
+    }
+
+    /**
+     * Queues content to be written. Only the latest content queued within the
+     * debounce window is written. Once the background thread has been shut
+     * down by {@link ConfigurationLoader#cleanup()}, the content is dropped
+     * with a warning.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param content The serialized configuration
+     */
+    void save(String content) {
+        if (this.executor.isShutdown()) {
+            this.rejected();
+            return;
+        }
+        if (this.pending.getAndSet(content) == null) {
+            try {
+                this.executor.schedule(new Runnable() {
+
+                    public void run() {
+                        flush();
+                    }
+
+                }, ConfigWriter.DEBOUNCE, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                this.pending.compareAndSet(content, null);
+                this.rejected();
+            }
+        }
+    }
+
+    /**
+     * Writes any pending content on the background thread without waiting
+     * for the debounce window. Writes on the calling thread instead if the
+     * background thread has been shut down.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param done Run on the writing thread once the content is written
+     */
+    void closeAsync(final Runnable done) {
+        Runnable task = new Runnable() {
+
+            public void run() {
+                try {
+                    flush();
+                } finally {
+                    done.run();
+                }
+            }
+
+        };
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            task.run();
+        }
+    }
+
+    /**
+     * Returns the content last known to be on disk
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The written content, or null if unknown
+     */
+    String getWritten() {
+        return this.written;
+    }
+
+    /**
+     * Writes any pending content on the calling thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void close() {
+        this.flush();
+    }
+
+    /**
+     * Logs a save arriving after the background thread was shut down
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void rejected() {
+        this.loader.getLogger().log(Level.WARNING, "Ignoring save of {0} after shutdown", this.file.getName());
+    }
+
+    /**
+     * Writes the pending content, unless it matches what is on disk
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private synchronized void flush() {
+        String content = this.pending.getAndSet(null);
+        if (content == null || content.equals(this.written)) {
+            return;
+        }
+        File temp = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+        try {
+            FileOutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(content.getBytes(StandardCharsets.UTF_8));
+                out.getChannel().force(true);
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(temp.toPath(), this.file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            this.written = content;
+        } catch (IOException ex) {
+            this.loader.getLogger().log(Level.SEVERE, "Error saving " + this.file.getName(), ex);
+        }
+    }
+
+}
@@ -20,7 +20,32 @@
 package com.codelanx.plugintemplate.config;
 
 import com.codelanx.plugintemplate.PluginTemplate;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 
 /**
  * Loads and manages the main configuration file for {@link InventoryShop}
@@ -32,7 +57,31 @@ import org.bukkit.configuration.file.FileConfiguration;
 public final class ConfigurationLoader {
 
     private final PluginTemplate plugin;
-    private final FileConfiguration yaml;
+    private final File file;
+    /** Binary copy of the validated values, keyed by a digest of the file */
+    private final File cache;
+    /** The parsed file, replaced wholesale on reload, null until needed */
+    private volatile FileConfiguration yaml;
+    /** The resolved values, replaced wholesale and never mutated */
+    private volatile ConfigSnapshot snapshot;
+    /** Reloads the file when it changes, null if disabled */
+    private ConfigWatcher watcher;
+    /** Pulls changes from a shared source, null if disabled */
+    private ConfigSync sync;
+    /** Holds the last applied shared config version across restarts */
+    private final File versionFile;
+    /** The last applied shared config version */
+    private volatile long syncVersion;
+    /** The {@link ConfigSource#getEpoch() epoch} {@link #syncVersion} counts in */
+    private volatile long syncEpoch;
+    /** Writes saves in the background */
+    private final ConfigWriter writer;
+    /** Background thread shared by every {@link ConfigWriter} */
+    private final ScheduledExecutorService writes;
+    /** Listeners notified of changed values after a reload */
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+    /** Sharded configuration directories, by directory name */
+    private final Map<String, ConfigShards> shards = new HashMap<String, ConfigShards>();
 
     /**
      * Constructor for {@link ConfigurationLoader}
@@ -44,24 +93,471 @@ public final class ConfigurationLoader {
      */
     public ConfigurationLoader(PluginTemplate plugin) {
         this.plugin = plugin;
+        this.file = new File(this.plugin.getDataFolder(), "config.yml");
+        this.cache = new File(this.plugin.getDataFolder(), "config.cache");
+        this.versionFile = new File(this.plugin.getDataFolder(), "config.version");
         this.plugin.saveDefaultConfig();
-        this.yaml = this.plugin.getConfig();
+        this.writes = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PluginTemplate-ConfigWriter");
+                t.setDaemon(true);
+                return t;
+            }
+
+        });
+        this.writer = new ConfigWriter(this, this.file, this.writes);
+        byte[] digest = null;
+        try {
+            digest = ConfigCache.digest(Files.readAllBytes(this.file.toPath()));
+        } catch (IOException ex) {
+            this.getLogger().log(Level.WARNING, "Unable to read config.yml, skipping cache", ex);
+        }
+        Object[] cached = digest == null ? null : ConfigCache.read(this.cache, digest);
+        if (cached != null) {
+            this.snapshot = new ConfigSnapshot(cached);
+        } else {
+            FileConfiguration loaded = this.plugin.getConfig();
+            this.yaml = loaded;
+            if (this.validate(loaded)) {
+                String content = loaded.saveToString();
+                this.writer.save(content);
+                digest = ConfigCache.digest(content.getBytes(StandardCharsets.UTF_8));
+            }
+            this.snapshot = new ConfigSnapshot(loaded);
+            this.writeCache(digest, this.snapshot);
+        }
+        if (this.getBoolean(ConfigValues.CONFIG_WATCH)) {
+            try {
+                this.watcher = new ConfigWatcher(this, this.file.toPath());
+                this.watcher.start();
+            } catch (IOException ex) {
+                this.getLogger().log(Level.WARNING, "Unable to watch config.yml for changes", ex);
+            }
+        }
+        this.startSync();
+    }
+
+    /**
+     * Validates every {@link ConfigValues} entry against its declared
+     * {@link ConfigType} and bounds in a single pass. Missing values are
+     * filled with their defaults, values that can be coerced are rewritten in
+     * their canonical form, and anything else is replaced by its default.
+     * All problems are reported together in one warning.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param yaml The configuration to validate
+     * @return true if any value was filled in or replaced
+     */
+    private boolean validate(FileConfiguration yaml) {
+        boolean back = false;
+        StringBuilder problems = new StringBuilder();
         for (ConfigValues conf : ConfigValues.values()) {
-            if (!this.yaml.isSet(conf.getPath())) {
-                this.yaml.set(conf.getPath(), conf.getDefault());
+            Object raw = yaml.get(conf.getPath());
+            if (raw == null) {
+                if (conf.getDefault() != null) {
+                    yaml.set(conf.getPath(), conf.getDefault());
+                    back = true;
+                }
+                continue;
+            }
+            Object value = conf.getType().coerce(raw);
+            String problem = value == null
+                    ? "expected " + conf.getType().getDescription() + ", found '" + raw + "'"
+                    : conf.check(value);
+            if (problem != null) {
+                problems.append("\n  ").append(conf.getPath()).append(": ").append(problem)
+                        .append(" (using default: ").append(conf.getDefault()).append(')');
+                value = conf.getDefault();
+            }
+            if (value != raw && (value == null || !value.equals(raw))) {
+                yaml.set(conf.getPath(), value);
+                back = true;
+            }
+        }
+        if (problems.length() > 0) {
+            this.getLogger().log(Level.WARNING, "Invalid values in config.yml:{0}", problems);
+        }
+        return back;
+    }
+
+    /**
+     * Re-reads the configuration file, validates it against
+     * {@link ConfigValues} and atomically publishes the result. Readers never
+     * block, and see either the old or the new snapshot in full. A file that
+     * fails to parse leaves the current configuration in place.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The entries whose value changed, empty if none or on failure
+     */
+    public synchronized Set<ConfigValues> reload() {
+        YamlConfiguration next = new YamlConfiguration();
+        byte[] digest;
+        try {
+            String content = new String(Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8);
+            if (content.equals(this.writer.getWritten())) {
+                return Collections.emptySet();
+            }
+            next.loadFromString(content);
+            digest = ConfigCache.digest(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            this.getLogger().log(Level.SEVERE, "Error reading config.yml, keeping current values", ex);
+            return Collections.emptySet();
+        } catch (InvalidConfigurationException ex) {
+            this.getLogger().log(Level.SEVERE, "Invalid config.yml, keeping current values", ex);
+            return Collections.emptySet();
+        }
+        if (this.validate(next)) {
+            digest = null;
+        }
+        Set<ConfigValues> changed = this.swap(next, digest);
+        if (!changed.isEmpty()) {
+            this.getLogger().log(Level.INFO, "Reloaded config.yml, changed: {0}", changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Applies diffs pulled from the shared {@link ConfigSource}. Only diffs
+     * newer than the last applied version are used, and their values are set
+     * on a copy of the current configuration, which is then validated,
+     * published to subscribers and saved to config.yml.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param diffs The diffs, in ascending version order
+     * @return The entries whose value changed
+     */
+    public synchronized Set<ConfigValues> apply(List<ConfigDiff> diffs) {
+        long version = this.syncVersion;
+        Map<String, Object> changes = new LinkedHashMap<String, Object>();
+        for (ConfigDiff diff : diffs) {
+            if (diff.getVersion() > version) {
+                changes.putAll(diff.getChanges());
+                version = diff.getVersion();
+            }
+        }
+        if (version == this.syncVersion) {
+            return Collections.emptySet();
+        }
+        YamlConfiguration next = new YamlConfiguration();
+        for (Map.Entry<String, Object> entry : this.getConfig().getValues(true).entrySet()) {
+            if (!(entry.getValue() instanceof ConfigurationSection)) {
+                next.set(entry.getKey(), entry.getValue());
             }
         }
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            next.set(entry.getKey(), entry.getValue());
+        }
+        this.validate(next);
+        Set<ConfigValues> changed = this.swap(next, null);
         this.saveConfig();
+        this.syncVersion = version;
+        this.writeSyncVersion();
+        this.getLogger().log(Level.INFO, "Applied shared config version {0}, changed: {1}",
+                new Object[] { version, changed });
+        return changed;
+    }
+
+    /**
+     * Returns the version of the last shared config diff applied
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The applied version, 0 if none
+     */
+    public long getSyncVersion() {
+        return this.syncVersion;
+    }
+
+    /**
+     * Returns the {@link ConfigSource#getEpoch() epoch} of the source the
+     * applied version was counted in
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The epoch, 0 if none recorded
+     */
+    public long getSyncEpoch() {
+        return this.syncEpoch;
+    }
+
+    /**
+     * Forgets the applied shared config version after the source restarted
+     * its numbering, so every diff of the new epoch is applied
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param epoch The new epoch of the source
+     */
+    synchronized void resetSync(long epoch) {
+        this.syncEpoch = epoch;
+        this.syncVersion = 0;
+        this.writeSyncVersion();
+    }
+
+    /**
+     * Records the applied shared config version as {@code <epoch>:<version>}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void writeSyncVersion() {
+        String stored = this.syncEpoch + ":" + this.syncVersion;
+        try {
+            Files.write(this.versionFile.toPath(), stored.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            this.getLogger().log(Level.WARNING, "Unable to record shared config version", ex);
+        }
+    }
+
+    /**
+     * Returns the shared {@link ConfigSource} in use, for publishing changes
+     * to every server
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The source, or null if config sync is disabled
+     */
+    public ConfigSource getSource() {
+        return this.sync == null ? null : this.sync.getSource();
+    }
+
+    /**
+     * Publishes a validated configuration, notifying subscribers of every
+     * entry that changed
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param next The new configuration
+     * @param digest The digest of the matching file on disk, or null if none
+     * @return The entries whose value changed
+     */
+    private Set<ConfigValues> swap(FileConfiguration next, byte[] digest) {
+        ConfigSnapshot current = this.snapshot;
+        ConfigSnapshot updated = new ConfigSnapshot(next);
+        this.writeCache(digest, updated);
+        Set<ConfigValues> changed = EnumSet.noneOf(ConfigValues.class);
+        for (ConfigValues conf : ConfigValues.values()) {
+            if (!Objects.equals(current.get(conf), updated.get(conf))) {
+                changed.add(conf);
+            }
+        }
+        this.yaml = next;
+        this.snapshot = updated;
+        if (!changed.isEmpty()) {
+            this.publish(updated, changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Creates the configured {@link ConfigSource}, if any, and starts polling
+     * it
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void startSync() {
+        String type = this.getString(ConfigValues.CONFIG_SYNC_SOURCE);
+        ConfigSource source;
+        if ("directory".equals(type)) {
+            File dir = new File(this.getString(ConfigValues.CONFIG_SYNC_DIRECTORY));
+            if (!dir.isAbsolute()) {
+                dir = new File(this.plugin.getDataFolder(), dir.getPath());
+            }
+            source = new DirectoryConfigSource(dir);
+        } else if ("loopback".equals(type)) {
+            source = new LoopbackConfigSource(this.getInt(ConfigValues.CONFIG_SYNC_PORT));
+        } else {
+            return;
+        }
+        if (this.versionFile.isFile()) {
+            try {
+                String stored = new String(Files.readAllBytes(this.versionFile.toPath()), StandardCharsets.UTF_8).trim();
+                int split = stored.indexOf(':');
+                this.syncEpoch = split < 0 ? 0 : Long.parseLong(stored.substring(0, split));
+                this.syncVersion = Long.parseLong(stored.substring(split + 1));
+            } catch (IOException | NumberFormatException ex) {
+                this.getLogger().log(Level.WARNING, "Unable to read shared config version, starting over", ex);
+            }
+        }
+        this.sync = new ConfigSync(this, source, this.getInt(ConfigValues.CONFIG_SYNC_INTERVAL));
+        this.sync.start();
     }
 
     /**
-     * Saves the current configuration from memory
+     * Subscribes a listener to changes of the given entries. After each
+     * reload, every subscribed entry that changed is delivered to the
+     * listener in a single call, run by the given {@link Executor}.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param listener The listener to notify
+     * @param executor The executor to notify the listener on, such as a
+     *                 {@link com.codelanx.plugintemplate.scheduler.MainThreadExecutor}
+     * @param keys The entries to listen to, or none for every entry
+     */
+    public void subscribe(ConfigListener listener, Executor executor, ConfigValues... keys) {
+        Set<ConfigValues> filter = keys.length == 0
+                ? EnumSet.allOf(ConfigValues.class)
+                : EnumSet.copyOf(Arrays.asList(keys));
+        this.subscriptions.add(new Subscription(listener, executor, filter));
+    }
+
+    /**
+     * Removes every subscription of a listener
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param listener The listener to remove
+     */
+    public void unsubscribe(ConfigListener listener) {
+        for (Subscription sub : this.subscriptions) {
+            if (sub.listener == listener) {
+                this.subscriptions.remove(sub);
+            }
+        }
+    }
+
+    /**
+     * Delivers a batch of changes to every interested subscriber
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param snapshot The new values
+     * @param changed Every entry that changed
+     */
+    private void publish(final ConfigSnapshot snapshot, Set<ConfigValues> changed) {
+        for (final Subscription sub : this.subscriptions) {
+            final Set<ConfigValues> relevant = EnumSet.copyOf(changed);
+            relevant.retainAll(sub.keys);
+            if (relevant.isEmpty()) {
+                continue;
+            }
+            final Set<ConfigValues> batch = Collections.unmodifiableSet(relevant);
+            try {
+                sub.executor.execute(new Runnable() {
+
+                    public void run() {
+                        try {
+                            sub.listener.onConfigChange(snapshot, batch);
+                        } catch (RuntimeException ex) {
+                            getLogger().log(Level.SEVERE, "Error in config listener", ex);
+                        }
+                    }
+
+                });
+            } catch (RejectedExecutionException ex) {
+                this.getLogger().log(Level.WARNING, "Config listener executor rejected change", ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the sharded configuration stored in a directory of the plugin
+     * data folder, such as one file per world. Shards are only parsed when
+     * first accessed.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param directory The directory name, relative to the data folder
+     * @return The {@link ConfigShards} for that directory
+     */
+    public synchronized ConfigShards getShards(String directory) {
+        ConfigShards back = this.shards.get(directory);
+        if (back == null) {
+            back = new ConfigShards(this, new File(this.plugin.getDataFolder(), directory), this.writes);
+            this.shards.put(directory, back);
+        }
+        return back;
+    }
+
+    /**
+     * Stops watching the configuration file, and writes any pending save.
+     * Saves made after this are logged and ignored.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void cleanup() {
+        if (this.watcher != null) {
+            this.watcher.stop();
+        }
+        if (this.sync != null) {
+            this.sync.stop();
+        }
+        this.writes.shutdown();
+        try {
+            this.writes.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.writer.close();
+        synchronized (this) {
+            for (ConfigShards shard : this.shards.values()) {
+                shard.close();
+            }
+        }
+    }
+
+    /**
+     * Saves the current configuration from memory. The configuration is
+     * serialized on the calling thread and written in the background; saves
+     * in quick succession are coalesced, and unchanged content is not
+     * written at all.
      *
      * @since 1.0.0
      * @version 1.0.0
      */
     public void saveConfig() {
-        this.plugin.saveConfig();
+        this.writer.save(this.getConfig().saveToString());
+    }
+
+    /**
+     * Writes a snapshot to the binary cache, or removes a stale cache if
+     * the snapshot does not match the file on disk
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param digest The digest of the file on disk, or null if unknown
+     * @param snapshot The snapshot validated from that file
+     */
+    private void writeCache(byte[] digest, ConfigSnapshot snapshot) {
+        try {
+            if (digest == null || !ConfigCache.write(this.cache, digest, snapshot)) {
+                Files.deleteIfExists(this.cache.toPath());
+            }
+        } catch (IOException ex) {
+            this.getLogger().log(Level.WARNING, "Unable to write config cache", ex);
+        }
+    }
+
+    /**
+     * Returns the logger configuration messages are reported to
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The plugin {@link Logger}
+     */
+    Logger getLogger() {
+        return this.plugin.getLogger();
     }
 
     /**
@@ -70,10 +566,52 @@ public final class ConfigurationLoader {
      * @since 1.3.0
      * @version 1.3.0
      *
-     * @return YamlConfiguration file, null if verifyConfig() has not been run
+     * @return YamlConfiguration file, parsed on first use if the values
+     *         were loaded from the cache
      */
     public FileConfiguration getConfig() {
-        return this.yaml;
+        FileConfiguration back = this.yaml;
+        if (back == null) {
+            synchronized (this) {
+                back = this.yaml;
+                if (back == null) {
+                    back = this.plugin.getConfig();
+                    this.validate(back);
+                    this.yaml = back;
+                }
+            }
+        }
+        return back;
+    }
+
+    /**
+     * Gets the current {@link ConfigSnapshot}. Callers reading several values
+     * that must be consistent with each other should read them all from one
+     * snapshot.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The current snapshot
+     */
+    public ConfigSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Validates the in-memory configuration and publishes it as a new
+     * {@link ConfigSnapshot}, notifying subscribers of every entry that
+     * changed. For use after values are changed through {@link #getConfig()}.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The entries whose value changed
+     */
+    public synchronized Set<ConfigValues> refresh() {
+        FileConfiguration current = this.getConfig();
+        this.validate(current);
+        return this.swap(current, null);
     }
 
     /**
@@ -85,8 +623,8 @@ public final class ConfigurationLoader {
      * @param path Path to string value
      * @return String value
      */
-    public synchronized String getString(ConfigValues path) {
-        return this.yaml.getString(path.getPath());
+    public String getString(ConfigValues path) {
+        return this.snapshot.getString(path);
     }
 
     /**
@@ -98,8 +636,34 @@ public final class ConfigurationLoader {
      * @param path Path to int value
      * @return int value
      */
-    public synchronized int getInt(ConfigValues path) {
-        return this.yaml.getInt(path.getPath());
+    public int getInt(ConfigValues path) {
+        return this.snapshot.getInt(path);
+    }
+
+    /**
+     * Gets a long value from the config
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param path Path to long value
+     * @return long value
+     */
+    public long getLong(ConfigValues path) {
+        return this.snapshot.getLong(path);
+    }
+
+    /**
+     * Gets a double value from the config
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param path Path to double value
+     * @return double value
+     */
+    public double getDouble(ConfigValues path) {
+        return this.snapshot.getDouble(path);
     }
 
     /**
@@ -111,8 +675,29 @@ public final class ConfigurationLoader {
      * @param path Path to boolean value
      * @return boolean value
      */
-    public synchronized boolean getBoolean(ConfigValues path) {
-        return this.yaml.getBoolean(path.getPath());
+    public boolean getBoolean(ConfigValues path) {
+        return this.snapshot.getBoolean(path);
+    }
+
+    /**
+     * A listener, the executor it is notified on and the entries it wants
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Subscription {
+
+        private final ConfigListener listener;
+        private final Executor executor;
+        private final Set<ConfigValues> keys;
+
+        private Subscription(ConfigListener listener, Executor executor, Set<ConfigValues> keys) {
+            this.listener = listener;
+            this.executor = executor;
+            this.keys = keys;
+        }
+
     }
 
 }
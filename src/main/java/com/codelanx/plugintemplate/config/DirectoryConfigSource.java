@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * {@link ConfigSource} backed by a directory shared between servers, such as
+ * a network mount. Each diff is a small yaml file named after its version,
+ * holding only the values it changes, so it can also be written by hand.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class DirectoryConfigSource implements ConfigSource {
+
+    private static final Pattern NAME = Pattern.compile("(\\d{1,18})\\.yml");
+    private final File directory;
+
+    /**
+     * {@link DirectoryConfigSource} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param directory The shared directory holding the diffs
+     */
+    public DirectoryConfigSource(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads every diff file newer than the given version. A file that cannot
+     * be parsed, for instance because it is still being written, ends the
+     * poll so that it is retried next time rather than skipped.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param since {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public List<ConfigDiff> poll(long since) throws IOException {
+        TreeMap<Long, File> newer = this.list();
+        if (newer.isEmpty() || newer.lastKey() <= since) {
+            return Collections.emptyList();
+        }
+        List<ConfigDiff> back = new ArrayList<ConfigDiff>();
+        for (Map.Entry<Long, File> entry : newer.tailMap(since, false).entrySet()) {
+            YamlConfiguration yaml = new YamlConfiguration();
+            try {
+                yaml.loadFromString(new String(Files.readAllBytes(entry.getValue().toPath()), StandardCharsets.UTF_8));
+            } catch (InvalidConfigurationException ex) {
+                break;
+            }
+            Map<String, Object> changes = new LinkedHashMap<String, Object>();
+            for (Map.Entry<String, Object> value : yaml.getValues(true).entrySet()) {
+                if (!(value.getValue() instanceof ConfigurationSection)) {
+                    changes.put(value.getKey(), value.getValue());
+                }
+            }
+            back.add(new ConfigDiff(entry.getKey(), changes));
+        }
+        return back;
+    }
+
+    /**
+     * Writes the changes to the next free version file. A version is claimed
+     * by exclusively creating a hidden marker file next to it, which only one
+     * server can do on any mount supporting exclusive creation, and markers
+     * are kept so a version is never claimed twice. The diff is then written
+     * in full to a temporary file and renamed into place atomically, so
+     * readers never see a partial diff. Hand-written diffs are not claimed,
+     * so one created at the same moment as a published one may be replaced.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param changes {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public long publish(Map<String, Object> changes) throws IOException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            yaml.set(entry.getKey(), entry.getValue());
+        }
+        byte[] content = yaml.saveToString().getBytes(StandardCharsets.UTF_8);
+        this.directory.mkdirs();
+        File temp = File.createTempFile(".diff", ".tmp", this.directory);
+        try {
+            Files.write(temp.toPath(), content);
+            TreeMap<Long, File> existing = this.list();
+            long version = existing.isEmpty() ? 1 : existing.lastKey() + 1;
+            while (true) {
+                File target = new File(this.directory, version + ".yml");
+                try {
+                    Files.createFile(new File(this.directory, "." + version + ".claim").toPath());
+                } catch (FileAlreadyExistsException ex) {
+                    version++;
+                    continue;
+                }
+                if (target.exists()) {
+                    version++;
+                    continue;
+                }
+                try {
+                    Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temp.toPath(), target.toPath());
+                }
+                return version;
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Always 0, as the versions are kept on disk and never restart
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return 0
+     */
+    @Override
+    public long getEpoch() {
+        return 0;
+    }
+
+    /**
+     * Does nothing, as no resources are held between polls
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Override
+    public void close() {
+    }
+
+    private TreeMap<Long, File> list() {
+        TreeMap<Long, File> back = new TreeMap<Long, File>();
+        File[] files = this.directory.listFiles();
+        if (files == null) {
+            return back;
+        }
+        for (File f : files) {
+            Matcher m = DirectoryConfigSource.NAME.matcher(f.getName());
+            if (m.matches()) {
+                try {
+                    back.put(Long.parseLong(m.group(1)), f);
+                } catch (NumberFormatException ex) {
+                    // not a version this source could have written, skip it
+                }
+            }
+        }
+        return back;
+    }
+
+}
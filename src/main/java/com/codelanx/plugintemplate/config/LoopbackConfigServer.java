@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Minimal in-memory config distribution service bound to the loopback
+ * interface. It keeps every published {@link ConfigDiff} and hands out the
+ * ones newer than a client's version. Versions restart from 1 with each
+ * server, so every poll answer carries an epoch picked at random when the
+ * server is created. It is meant to be stood up next to a
+ * set of servers on one machine, or locally for testing
+ * {@link LoopbackConfigSource}.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class LoopbackConfigServer implements Runnable {
+
+    /** Request for diffs newer than a version */
+    static final byte POLL = 1;
+    /** Request to publish a diff */
+    static final byte PUBLISH = 2;
+    private final Logger logger;
+    private final ServerSocket socket;
+    private final Thread thread;
+    /** Identifies this server's versions, see {@link ConfigSource#getEpoch()} */
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    /** Every published diff, in version order */
+    private final List<ConfigDiff> diffs = new ArrayList<ConfigDiff>();
+
+    /**
+     * {@link LoopbackConfigServer} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param port The port to listen on, or 0 for any free port
+     * @param logger The logger to report failed requests to
+     * @throws IOException If the port cannot be bound
+     */
+    public LoopbackConfigServer(int port, Logger logger) throws IOException {
+        this.logger = logger;
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.thread = new Thread(this, "PluginTemplate-ConfigServer");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting requests
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Stops accepting requests and ends the server thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void stop() {
+        try {
+            this.socket.close();
+        } catch (IOException ex) {
+            this.logger.log(Level.WARNING, "Error closing config server", ex);
+        }
+    }
+
+    /**
+     * Returns the port the server listens on
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The bound port
+     */
+    public int getPort() {
+        return this.socket.getLocalPort();
+    }
+
+    /**
+     * Returns the epoch sent with every poll answer
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The epoch of this server
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Publishes a diff directly, without going through a client
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param changes The new values, keyed by full path
+     * @return The version assigned to the diff
+     */
+    public synchronized long publish(Map<String, Object> changes) {
+        long version = this.diffs.size() + 1;
+        this.diffs.add(new ConfigDiff(version, changes));
+        return version;
+    }
+
+    /**
+     * Accepts and answers requests, one per connection
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void run() {
+        while (!this.socket.isClosed()) {
+            try (Socket client = this.socket.accept()) {
+                client.setSoTimeout(2000);
+                this.handle(client);
+            } catch (SocketException ex) {
+                if (!this.socket.isClosed()) {
+                    this.logger.log(Level.WARNING, "Error in config server connection", ex);
+                }
+            } catch (IOException ex) {
+                this.logger.log(Level.WARNING, "Error in config server connection", ex);
+            }
+        }
+    }
+
+    private void handle(Socket client) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+        byte op = in.readByte();
+        if (op == LoopbackConfigServer.POLL) {
+            List<ConfigDiff> newer = this.since(in.readLong());
+            out.writeLong(this.epoch);
+            out.writeInt(newer.size());
+            for (ConfigDiff diff : newer) {
+                diff.write(out);
+            }
+        } else if (op == LoopbackConfigServer.PUBLISH) {
+            out.writeLong(this.publish(ConfigDiff.readChanges(in)));
+        } else {
+            throw new IOException("Unknown request " + op);
+        }
+        out.flush();
+    }
+
+    private synchronized List<ConfigDiff> since(long version) {
+        int from = (int) Math.max(0, Math.min(version, this.diffs.size()));
+        return new ArrayList<ConfigDiff>(this.diffs.subList(from, this.diffs.size()));
+    }
+
+}
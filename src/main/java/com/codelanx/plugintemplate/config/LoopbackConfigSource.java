@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ConfigSource} that talks to a {@link LoopbackConfigServer} on the
+ * local machine. Each poll or publish is a single short-lived connection.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class LoopbackConfigSource implements ConfigSource {
+
+    /** Milliseconds to wait for connecting and for each read */
+    private static final int TIMEOUT = 2000;
+    private final int port;
+    /** Epoch of the server as of the last poll */
+    private volatile long epoch = 0;
+
+    /**
+     * {@link LoopbackConfigSource} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param port The port the {@link LoopbackConfigServer} listens on
+     */
+    public LoopbackConfigSource(int port) {
+        this.port = port;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param since {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public List<ConfigDiff> poll(long since) throws IOException {
+        try (Socket socket = this.connect()) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(LoopbackConfigServer.POLL);
+            out.writeLong(since);
+            out.flush();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            long epoch = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Invalid diff count " + count);
+            }
+            List<ConfigDiff> back = new ArrayList<ConfigDiff>(Math.min(count, 16));
+            for (int i = 0; i < count; i++) {
+                back.add(ConfigDiff.read(in));
+            }
+            this.epoch = epoch;
+            return back;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param changes {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public long publish(Map<String, Object> changes) throws IOException {
+        try (Socket socket = this.connect()) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(LoopbackConfigServer.PUBLISH);
+            ConfigDiff.writeChanges(out, changes);
+            out.flush();
+            return new DataInputStream(socket.getInputStream()).readLong();
+        }
+    }
+
+    /**
+     * Returns the epoch of the server as of the last poll, which changes
+     * whenever a new server restarts the versions from 1
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Does nothing, as connections are not kept between requests
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Override
+    public void close() {
+    }
+
+    private Socket connect() throws IOException {
+        Socket back = new Socket();
+        try {
+            back.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port), LoopbackConfigSource.TIMEOUT);
+            back.setSoTimeout(LoopbackConfigSource.TIMEOUT);
+        } catch (IOException ex) {
+            back.close();
+            throw ex;
+        }
+        return back;
+    }
+
+}
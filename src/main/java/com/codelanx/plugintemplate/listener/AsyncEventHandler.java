@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import java.util.List;
+import org.bukkit.event.Event;
+
+/**
+ * An event handler split into three stages, so that the expensive part runs
+ * off the server thread. Registered through
+ * {@link ListenerManager#registerAsync(String, Class, org.bukkit.event.EventPriority, AsyncEventHandler)}.
+ * <ol>
+ * <li>{@link #capture(Event)} runs on the thread firing the event, and copies
+ *     what is needed into an immutable snapshot. It should do nothing else.</li>
+ * <li>{@link #process(Object)} runs on a worker thread, one snapshot at a
+ *     time in the order they were captured, and must not touch the bukkit
+ *     API.</li>
+ * <li>{@link #apply(List)} runs on the server thread with every result
+ *     finished since the last call, at most once per tick.</li>
+ * </ol>
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ *
+ * @param <E> The type of event
+ * @param <S> The type of snapshot, which must be immutable
+ * @param <R> The type of result
+ */
+public interface AsyncEventHandler<E extends Event, S, R> {
+
+    /**
+     * Copies the data needed from an event
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param event The event being fired
+     * @return An immutable snapshot, or null to ignore the event
+     */
+    public S capture(E event);
+
+    /**
+     * Processes a snapshot on a worker thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param snapshot The captured snapshot
+     * @return A result to apply on the server thread, or null if none
+     */
+    public R process(S snapshot);
+
+    /**
+     * Applies a batch of results on the server thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param results The results, in the order their events were captured
+     */
+    public void apply(List<R> results);
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import org.bukkit.event.Event;
+
+/**
+ * Receives high-frequency events collapsed to one callback per key per tick,
+ * registered through
+ * {@link ListenerManager#registerCoalesced(String, Class, CoalescedListener)}.
+ * Callbacks arrive after the events have finished dispatching, so they can
+ * observe but not cancel or modify them.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ *
+ * @param <K> The type events are grouped by, such as a player {@link java.util.UUID}
+ * @param <E> The type of event
+ */
+public interface CoalescedListener<K, E extends Event> {
+
+    /**
+     * Returns the key an event is grouped under
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param event The event
+     * @return The key, or null to ignore the event
+     */
+    public K getKey(E event);
+
+    /**
+     * Called once per key for every tick that saw at least one event
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param key The key the events were grouped under
+     * @param first The first event of the tick
+     * @param last The latest event of the tick, the same as {@code first}
+     *             if there was only one
+     * @param count The number of events collapsed
+     */
+    public void onCoalesced(K key, E first, E last, int count);
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Collects events for a {@link CoalescedListener} during a tick and hands
+ * over one callback per key at the start of the next. The flush is only
+ * scheduled for ticks that actually saw an event. Only synchronous events,
+ * which are fired from the server thread, may be coalesced, since the
+ * pending map is not thread-safe.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ *
+ * @param <K> The type events are grouped by
+ * @param <E> The type of event
+ */
+final class EventCoalescer<K, E extends Event> implements Listener, EventExecutor, Runnable {
+
+    /** Events bukkit fires off the server thread, by class name so missing ones are skipped */
+    private static final String[] ASYNC_EVENTS = {
+        "org.bukkit.event.player.AsyncPlayerChatEvent",
+        "org.bukkit.event.player.AsyncPlayerPreLoginEvent"
+    };
+    private final Plugin plugin;
+    private final Class<E> type;
+    private final CoalescedListener<K, E> target;
+    /** Events of the current tick by key, in order of first arrival */
+    private Map<K, Pending<E>> pending = new LinkedHashMap<K, Pending<E>>();
+    private boolean scheduled = false;
+
+    /**
+     * {@link EventCoalescer} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param plugin The plugin to schedule flushes under
+     * @param type The event class to collect
+     * @param target The listener to deliver to
+     */
+    EventCoalescer(Plugin plugin, Class<E> type, CoalescedListener<K, E> target) {
+        if (EventCoalescer.isAsync(type)) {
+            throw new IllegalArgumentException("Cannot coalesce asynchronous event " + type.getName());
+        }
+        this.plugin = plugin;
+        this.type = type;
+        this.target = target;
+    }
+
+    /**
+     * Records an event under its key
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param listener This coalescer
+     * @param event The fired event
+     * @throws IllegalStateException The event was fired asynchronously
+     */
+    @Override
+    public void execute(Listener listener, Event event) {
+        if (!this.type.isInstance(event)) {
+            return;
+        }
+        if (event.isAsynchronous()) {
+            throw new IllegalStateException("Cannot coalesce asynchronous event " + event.getClass().getName());
+        }
+        E e = this.type.cast(event);
+        K key = this.target.getKey(e);
+        if (key == null) {
+            return;
+        }
+        Pending<E> p = this.pending.get(key);
+        if (p == null) {
+            this.pending.put(key, new Pending<E>(e));
+        } else {
+            p.last = e;
+            p.count++;
+        }
+        if (!this.scheduled) {
+            this.scheduled = true;
+            this.plugin.getServer().getScheduler().runTask(this.plugin, this);
+        }
+    }
+
+    /**
+     * Delivers the events collected during the previous tick
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void run() {
+        Map<K, Pending<E>> batch = this.pending;
+        this.pending = new LinkedHashMap<K, Pending<E>>(Math.max(16, batch.size() * 2));
+        this.scheduled = false;
+        for (Map.Entry<K, Pending<E>> entry : batch.entrySet()) {
+            Pending<E> p = entry.getValue();
+            try {
+                this.target.onCoalesced(entry.getKey(), p.first, p.last, p.count);
+            } catch (RuntimeException ex) {
+                this.plugin.getLogger().log(Level.SEVERE, "Error in coalesced listener for " + this.type.getSimpleName(), ex);
+            }
+        }
+    }
+
+    /**
+     * Returns whether or not an event class is one bukkit fires
+     * asynchronously
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param type The event class to check
+     * @return true if the class is or extends a known asynchronous event
+     */
+    static boolean isAsync(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (String name : EventCoalescer.ASYNC_EVENTS) {
+                if (name.equals(c.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The events collected for one key
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     *
+     * @param <E> The type of event
+     */
+    private static final class Pending<E> {
+
+        private final E first;
+        private E last;
+        private int count = 1;
+
+        private Pending(E first) {
+            this.first = first;
+            this.last = first;
+        }
+
+    }
+
+}
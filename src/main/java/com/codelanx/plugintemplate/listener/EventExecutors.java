@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+
+/**
+ * Builds {@link RegisteredListener}s for the {@link EventHandler} methods of
+ * a {@link Listener} without reflective invocation. Public handlers of public
+ * classes are bound through {@link LambdaMetafactory}, which produces a
+ * class calling the handler directly that the JIT can inline; any other
+ * handler, including static ones, is called through a {@link MethodHandle}.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class EventExecutors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY = MethodType.methodType(HandlerInvoker.class);
+
+    private EventExecutors() {
+    }
+
+    /**
+     * Finds every {@link EventHandler} method of a listener and builds a
+     * {@link RegisteredListener} for each, grouped by event class
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param listener The listener to scan
+     * @param plugin The plugin registering the listener
+     * @return The handlers, grouped by the event class they handle
+     */
+    static Map<Class<? extends Event>, Set<RegisteredListener>> create(Listener listener, Plugin plugin) {
+        Set<Method> methods = new LinkedHashSet<Method>();
+        for (Method m : listener.getClass().getMethods()) {
+            methods.add(m);
+        }
+        for (Method m : listener.getClass().getDeclaredMethods()) {
+            methods.add(m);
+        }
+        Map<Class<? extends Event>, Set<RegisteredListener>> back = new HashMap<Class<? extends Event>, Set<RegisteredListener>>();
+        for (Method method : methods) {
+            EventHandler info = method.getAnnotation(EventHandler.class);
+            if (info == null || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            Class<?>[] params = method.getParameterTypes();
+            if (params.length != 1 || !Event.class.isAssignableFrom(params[0])) {
+                plugin.getLogger().severe(plugin.getName() + " attempted to register an invalid EventHandler method signature \""
+                        + method.toGenericString() + "\" in " + listener.getClass());
+                continue;
+            }
+            HandlerInvoker invoker;
+            try {
+                invoker = EventExecutors.bind(method);
+            } catch (IllegalStateException ex) {
+                plugin.getLogger().log(Level.SEVERE, plugin.getName() + " attempted to register an unbindable EventHandler method \""
+                        + method.toGenericString() + "\" in " + listener.getClass(), ex);
+                continue;
+            }
+            Class<? extends Event> event = params[0].asSubclass(Event.class);
+            Set<RegisteredListener> handlers = back.get(event);
+            if (handlers == null) {
+                handlers = new HashSet<RegisteredListener>();
+                back.put(event, handlers);
+            }
+            handlers.add(new MethodListener(listener, new Executor(event, invoker),
+                    info, plugin, method.getName()));
+        }
+        return back;
+    }
+
+    /**
+     * Binds a handler method to a {@link HandlerInvoker}. Static handlers
+     * ignore the listener they are invoked with, as in bukkit.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param method The handler method
+     * @return An invoker calling the method
+     * @throws IllegalStateException If the method cannot be bound
+     */
+    private static HandlerInvoker bind(Method method) {
+        int mods = method.getModifiers();
+        if (Modifier.isPublic(mods) && !Modifier.isStatic(mods)
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            try {
+                MethodHandle target = EventExecutors.LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(EventExecutors.LOOKUP, "invoke",
+                        EventExecutors.FACTORY, EventExecutors.INVOKE, target,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0]));
+                return (HandlerInvoker) site.getTarget().invoke();
+            } catch (Throwable ex) {
+                // fall through to a plain method handle
+            }
+        }
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = EventExecutors.LOOKUP.unreflect(method);
+            if (Modifier.isStatic(mods)) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return new HandleInvoker(handle.asType(EventExecutors.INVOKE));
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Unable to access event handler " + method, ex);
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Unable to bind event handler " + method, ex);
+        }
+    }
+
+    /**
+     * {@link HandlerInvoker} calling a {@link MethodHandle}, used when the
+     * handler is not accessible to {@link LambdaMetafactory}
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class HandleInvoker implements HandlerInvoker {
+
+        private final MethodHandle handle;
+
+        private HandleInvoker(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        public void invoke(Object listener, Object event) throws Throwable {
+            this.handle.invokeExact(listener, event);
+        }
+
+    }
+
+    /**
+     * {@link EventExecutor} passing events of its type to a
+     * {@link HandlerInvoker}
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Executor implements EventExecutor {
+
+        private final Class<? extends Event> event;
+        private final HandlerInvoker invoker;
+
+        private Executor(Class<? extends Event> event, HandlerInvoker invoker) {
+            this.event = event;
+            this.invoker = invoker;
+        }
+
+        public void execute(Listener listener, Event event) throws EventException {
+            if (!this.event.isInstance(event)) {
+                return;
+            }
+            try {
+                this.invoker.invoke(listener, event);
+            } catch (Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new EventException(ex);
+            }
+        }
+
+    }
+
+    /**
+     * {@link RegisteredListener} that remembers the name of its handler
+     * method, so it can be told apart in profiles
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    static final class MethodListener extends RegisteredListener {
+
+        private final String method;
+
+        private MethodListener(Listener listener, EventExecutor executor, EventHandler info, Plugin plugin, String method) {
+            super(listener, executor, info.priority(), plugin, info.ignoreCancelled());
+            this.method = method;
+        }
+
+        /**
+         * Returns the name of the handler method
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @return The method name
+         */
+        String getMethod() {
+            return this.method;
+        }
+
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs an {@link AsyncEventHandler}. Snapshots are captured on the firing
+ * thread and put on a lock-free queue, a single drain task at a time
+ * processes them on the worker pool, and results are handed back to the
+ * server thread in one batch per tick.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ *
+ * @param <E> The type of event
+ * @param <S> The type of snapshot
+ * @param <R> The type of result
+ */
+final class EventPipeline<E extends Event, S, R> implements Listener, EventExecutor {
+
+    private final Plugin plugin;
+    private final Class<E> type;
+    private final AsyncEventHandler<E, S, R> handler;
+    private final Executor workers;
+    /** Captured snapshots, written by any thread and read by the drain task */
+    private final Queue<S> snapshots = new ConcurrentLinkedQueue<S>();
+    /** Finished results, written by the drain task and read on the server thread */
+    private final Queue<R> results = new ConcurrentLinkedQueue<R>();
+    /** Whether a drain task is queued or running */
+    private final AtomicBoolean draining = new AtomicBoolean();
+    /** Whether an apply task is scheduled */
+    private final AtomicBoolean applying = new AtomicBoolean();
+    private final Runnable drain = new Runnable() {
+
+        public void run() {
+            drain();
+        }
+
+    };
+    private final Runnable apply = new Runnable() {
+
+        public void run() {
+            apply();
+        }
+
+    };
+
+    /**
+     * {@link EventPipeline} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param plugin The plugin to schedule result batches under
+     * @param type The event class to capture
+     * @param handler The handler to run
+     * @param workers The pool snapshots are processed on
+     */
+    EventPipeline(Plugin plugin, Class<E> type, AsyncEventHandler<E, S, R> handler, Executor workers) {
+        this.plugin = plugin;
+        this.type = type;
+        this.handler = handler;
+        this.workers = workers;
+    }
+
+    /**
+     * Captures a snapshot of the event and queues it for processing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param listener This pipeline
+     * @param event The fired event
+     */
+    @Override
+    public void execute(Listener listener, Event event) {
+        if (!this.type.isInstance(event)) {
+            return;
+        }
+        S snapshot = this.handler.capture(this.type.cast(event));
+        if (snapshot == null) {
+            return;
+        }
+        this.snapshots.offer(snapshot);
+        if (this.draining.compareAndSet(false, true)) {
+            try {
+                this.workers.execute(this.drain);
+            } catch (RejectedExecutionException ex) {
+                this.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Processes queued snapshots until none are left
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void drain() {
+        do {
+            S snapshot;
+            while ((snapshot = this.snapshots.poll()) != null) {
+                try {
+                    R result = this.handler.process(snapshot);
+                    if (result != null) {
+                        this.results.offer(result);
+                        this.scheduleApply();
+                    }
+                } catch (RuntimeException ex) {
+                    this.plugin.getLogger().log(Level.SEVERE, "Error processing " + this.type.getSimpleName() + " off-thread", ex);
+                }
+            }
+            this.draining.set(false);
+        } while (!this.snapshots.isEmpty() && this.draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Schedules a batch apply for the next tick, unless one is pending
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void scheduleApply() {
+        if (this.plugin.isEnabled() && this.applying.compareAndSet(false, true)) {
+            this.plugin.getServer().getScheduler().runTask(this.plugin, this.apply);
+        }
+    }
+
+    /**
+     * Hands every finished result to the handler in one batch
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void apply() {
+        this.applying.set(false);
+        List<R> batch = new ArrayList<R>();
+        R result;
+        while ((result = this.results.poll()) != null) {
+            batch.add(result);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            this.handler.apply(batch);
+        } catch (RuntimeException ex) {
+            this.plugin.getLogger().log(Level.SEVERE, "Error applying " + this.type.getSimpleName() + " results", ex);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import com.codelanx.plugintemplate.metrics.LatencyHistogram;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.event.Event;
+
+/**
+ * Invocation count and sampled execution times of a single event handler
+ * managed by {@link ListenerManager}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class HandlerProfile {
+
+    private final String name;
+    private final Class<? extends Event> event;
+    private final AtomicLong calls = new AtomicLong();
+    /** Execution times of the sampled calls */
+    private final LatencyHistogram timings = new LatencyHistogram();
+
+    /**
+     * {@link HandlerProfile} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The name of the handler
+     * @param event The event class it handles
+     */
+    HandlerProfile(String name, Class<? extends Event> event) {
+        this.name = name;
+        this.event = event;
+    }
+
+    /**
+     * Counts a call and decides whether it should be timed
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param rate Time one in this many calls, 0 to time none
+     * @return true if this call should be timed
+     */
+    boolean count(int rate) {
+        long n = this.calls.incrementAndGet();
+        return rate > 0 && n % rate == 0;
+    }
+
+    /**
+     * Returns the name of the handler, the name of its listener followed by
+     * the handling method where known
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The handler name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the event class the handler is registered for
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The event class
+     */
+    public Class<? extends Event> getEventType() {
+        return this.event;
+    }
+
+    /**
+     * Returns the number of times the handler was called
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The invocation count
+     */
+    public long getCalls() {
+        return this.calls.get();
+    }
+
+    /**
+     * Returns the execution times of the sampled calls
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The {@link LatencyHistogram} of sampled calls
+     */
+    public LatencyHistogram getTimings() {
+        return this.timings;
+    }
+
+    /**
+     * Estimates the total time spent in the handler from the sampled mean
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The estimated total, in nanoseconds
+     */
+    public long getEstimatedTotal() {
+        return (long) (this.timings.getMean() * this.calls.get());
+    }
+
+    /**
+     * Clears the call count and timings
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void reset() {
+        this.calls.set(0);
+        this.timings.reset();
+    }
+
+}
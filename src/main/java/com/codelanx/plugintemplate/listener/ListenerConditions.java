@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.config.ConfigType;
+import com.codelanx.plugintemplate.config.ConfigValues;
+
+/**
+ * Common {@link ListenerCondition}s
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ListenerConditions {
+
+    private ListenerConditions() {
+    }
+
+    /**
+     * Holds while a boolean config value is <code>true</code>
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param value The config value to read
+     * @return The condition
+     * @throws IllegalArgumentException If the value is not a boolean
+     */
+    public static ListenerCondition configFlag(final ConfigValues value) {
+        if (value.getType() != ConfigType.BOOLEAN) {
+            throw new IllegalArgumentException(value.getPath() + " is not a boolean value");
+        }
+        return new ListenerCondition() {
+
+            public boolean holds(PluginTemplate plugin) {
+                return plugin.getConfiguration().getBoolean(value);
+            }
+
+        };
+    }
+
+    /**
+     * Holds once a command has been used, and from then on until the
+     * plugin is disabled
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param path The full, space-separated path of the command
+     * @return The condition
+     */
+    public static ListenerCondition commandUsed(final String path) {
+        return new ListenerCondition() {
+
+            public boolean holds(PluginTemplate plugin) {
+                return plugin.getCommandHandler() != null && plugin.getCommandHandler().hasBeenUsed(path);
+            }
+
+        };
+    }
+
+    /**
+     * Holds while a world is loaded
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param world The name of the world
+     * @return The condition
+     */
+    public static ListenerCondition worldLoaded(final String world) {
+        return new ListenerCondition() {
+
+            public boolean holds(PluginTemplate plugin) {
+                return plugin.getServer().getWorld(world) != null;
+            }
+
+        };
+    }
+
+    /**
+     * Holds while every one of a set of conditions holds
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param conditions The conditions to combine
+     * @return The condition
+     */
+    public static ListenerCondition all(final ListenerCondition... conditions) {
+        return new ListenerCondition() {
+
+            public boolean holds(PluginTemplate plugin) {
+                for (ListenerCondition condition : conditions) {
+                    if (!condition.holds(plugin)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import org.bukkit.event.Listener;
+
+/**
+ * Constructs a listener registered through
+ * {@link ListenerManager#registerConditional(String, ListenerCondition, ListenerFactory)}.
+ * Called each time its condition starts to hold, so a listener that is
+ * deactivated and activated again is a new instance.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public interface ListenerFactory {
+
+    /**
+     * Creates a new instance of the listener
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The listener to register
+     */
+    public Listener create();
+
+}
@@ -21,13 +21,40 @@ package com.codelanx.plugintemplate.listener;
 
 import com.codelanx.plugintemplate.listener.listeners.*;
 import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.config.ConfigListener;
+import com.codelanx.plugintemplate.config.ConfigSnapshot;
+import com.codelanx.plugintemplate.config.ConfigValues;
+import com.codelanx.plugintemplate.scheduler.MainThreadExecutor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.RegisteredListener;
 
 /**
- * Handles listeners for {@link PluginTemplate}
+ * Handles listeners for {@link PluginTemplate}. Each listener is registered
+ * under a name and can be disabled and re-enabled at runtime, which removes
+ * its handlers from the {@link HandlerList}s of their events so a disabled
+ * listener adds nothing to event dispatch.
  *
  * @since 1.0.0
  * @author 1Rogue
@@ -36,7 +63,25 @@ import org.bukkit.event.Listener;
 public class ListenerManager {
     
     private final PluginTemplate plugin;
-    private final Map<String, Listener> listeners = new HashMap<String, Listener>();
+    private final Map<String, Registration> listeners = new LinkedHashMap<String, Registration>();
+    /** {@link HandlerList} of each event class, resolved once */
+    private final Map<Class<? extends Event>, HandlerList> handlerLists = new HashMap<Class<? extends Event>, HandlerList>();
+    /** Names disabled through {@link ConfigValues#LISTENER_DISABLED} */
+    private Set<String> configDisabled;
+    /** Profiles of every handler, in registration order */
+    private final List<HandlerProfile> profiles = new CopyOnWriteArrayList<HandlerProfile>();
+    /** Time one in this many handler calls, 0 when profiling is off */
+    private volatile int sampleRate;
+    /** Worker pool for {@link AsyncEventHandler}s, null until first needed */
+    private ExecutorService workers;
+    /** Applies {@link ConfigValues#LISTENER_DISABLED} and the sample rate on reload */
+    private final ConfigListener toggler;
+    /** Listeners registered only while their condition holds */
+    private final Map<String, Conditional> conditionals = new LinkedHashMap<String, Conditional>();
+    /** Re-checks conditions on config changes, null until the first conditional listener */
+    private ConfigListener watcher;
+    /** Whether a re-check of conditions is already scheduled */
+    private boolean checkPending = false;
     
     /**
      * {@link ListenerManager} constructor
@@ -50,11 +95,29 @@ public class ListenerManager {
         
         this.plugin = plugin;
         
-        this.listeners.put("example", new SomeListener());
+        this.configDisabled = ListenerManager.parseNames(this.plugin.getConfiguration().getString(ConfigValues.LISTENER_DISABLED));
+        this.sampleRate = this.plugin.getConfiguration().getInt(ConfigValues.LISTENER_PROFILE_SAMPLE);
+        this.registerConditional("example", ListenerConditions.configFlag(ConfigValues.LISTENER_EXAMPLE), new ListenerFactory() {
+
+            public Listener create() {
+                return new SomeListener();
+            }
+
+        });
+        this.registerListener("world-shards", new WorldShardListener(this.plugin.getConfiguration().getShards("worlds")));
         
-        for (Listener l : this.listeners.values()) {
-            this.plugin.getServer().getPluginManager().registerEvents(l, this.plugin);
-        }
+        this.toggler = new ConfigListener() {
+
+            public void onConfigChange(ConfigSnapshot snapshot, Set<ConfigValues> changed) {
+                sampleRate = snapshot.getInt(ConfigValues.LISTENER_PROFILE_SAMPLE);
+                if (changed.contains(ConfigValues.LISTENER_DISABLED)) {
+                    applyConfig(ListenerManager.parseNames(snapshot.getString(ConfigValues.LISTENER_DISABLED)));
+                }
+            }
+
+        };
+        this.plugin.getConfiguration().subscribe(this.toggler, new MainThreadExecutor(this.plugin),
+                ConfigValues.LISTENER_DISABLED, ConfigValues.LISTENER_PROFILE_SAMPLE);
     }
     
     /**
@@ -68,7 +131,8 @@ public class ListenerManager {
      * @return The listener class, null if disabled or not registered
      */
     public Listener getListener(String name) {
-        return this.listeners.get(name);
+        Registration reg = this.listeners.get(name);
+        return reg == null || !reg.enabled ? null : reg.listener;
     }
     
     /**
@@ -85,7 +149,37 @@ public class ListenerManager {
     }
 
     /**
-     * Registers a listener through bukkit and {@link ListenerManager}
+     * Returns whether a registered listener is currently receiving events
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The key to look for
+     * @return <code>true</code> if registered and enabled, <code>false</code> otherwise
+     */
+    public boolean isEnabled(String name) {
+        Registration reg = this.listeners.get(name);
+        return reg != null && reg.enabled;
+    }
+
+    /**
+     * Returns the names of every registered listener, in registration order
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return An unmodifiable view of the listener names
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.listeners.keySet());
+    }
+
+    /**
+     * Registers a listener through bukkit and {@link ListenerManager}. Its
+     * handlers are called through generated executors rather than
+     * reflection, see {@link EventExecutors}. The listener starts out
+     * disabled if its name is listed under
+     * {@link ConfigValues#LISTENER_DISABLED}.
      * 
      * @since 1.0.0
      * @version 1.0.0
@@ -95,12 +189,319 @@ public class ListenerManager {
      * @throws ListenerReregisterException Attempted to register a Listener under a similar key
      */
     public void registerListener(String name, Listener listener) throws ListenerReregisterException {
-        if (!this.listeners.containsKey(name)) {
-            this.listeners.put(name, listener);
-            this.plugin.getServer().getPluginManager().registerEvents(listener, this.plugin);
-        } else {
+        this.register(name, listener, EventExecutors.create(listener, this.plugin));
+    }
+
+    /**
+     * Declares a listener that is only constructed and registered while a
+     * condition holds, and unregistered again once it stops holding.
+     * Conditions are re-checked whenever the config changes, a world loads
+     * or unloads, or a command is used for the first time. While active, the
+     * listener is named and toggled like any other, and a listener disabled
+     * through {@link #setEnabled(String, boolean)} stays disabled when its
+     * condition holds again.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The name to place the listener as, cannot be the same as a current listener
+     * @param condition The condition under which the listener is registered
+     * @param factory Creates the listener each time the condition starts to hold
+     * @throws ListenerReregisterException Attempted to register a Listener under a similar key
+     */
+    public void registerConditional(String name, ListenerCondition condition, ListenerFactory factory)
+            throws ListenerReregisterException {
+        if (this.listeners.containsKey(name) || this.conditionals.containsKey(name)) {
             throw new ListenerReregisterException("Listener Map already contains key: " + name);
         }
+        if (this.watcher == null) {
+            this.watchConditions();
+        }
+        Conditional entry = new Conditional(condition, factory);
+        this.conditionals.put(name, entry);
+        this.checkCondition(name, entry);
+    }
+
+    /**
+     * Re-checks the condition of every conditional listener, registering
+     * those whose condition now holds and unregistering those whose
+     * condition no longer does. Must be called on the server thread.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void checkConditions() {
+        for (Map.Entry<String, Conditional> entry : this.conditionals.entrySet()) {
+            this.checkCondition(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void checkCondition(String name, Conditional entry) {
+        boolean holds = entry.condition.holds(this.plugin);
+        boolean active = this.listeners.containsKey(name);
+        if (holds && !active) {
+            Listener listener = entry.factory.create();
+            this.add(name, listener, EventExecutors.create(listener, this.plugin));
+        } else if (!holds && active) {
+            Registration reg = this.listeners.remove(name);
+            this.disable(reg);
+            this.profiles.removeAll(reg.profiles);
+        }
+    }
+
+    /**
+     * Starts re-checking conditions on config changes and world loads. World
+     * events are checked a tick later, once an unloading world is gone.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void watchConditions() {
+        this.watcher = new ConfigListener() {
+
+            public void onConfigChange(ConfigSnapshot snapshot, Set<ConfigValues> changed) {
+                checkConditions();
+            }
+
+        };
+        this.plugin.getConfiguration().subscribe(this.watcher, new MainThreadExecutor(this.plugin));
+        Listener worlds = new Listener() {
+
+            @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+            public void onLoad(WorldLoadEvent event) {
+                scheduleCheck();
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+            public void onUnload(WorldUnloadEvent event) {
+                scheduleCheck();
+            }
+
+        };
+        for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry
+                : EventExecutors.create(worlds, this.plugin).entrySet()) {
+            this.getHandlerList(entry.getKey()).registerAll(entry.getValue());
+        }
+    }
+
+    private void scheduleCheck() {
+        if (this.checkPending) {
+            return;
+        }
+        this.checkPending = true;
+        this.plugin.getServer().getScheduler().runTask(this.plugin, new Runnable() {
+
+            public void run() {
+                checkPending = false;
+                checkConditions();
+            }
+
+        });
+    }
+
+    /**
+     * Registers a {@link CoalescedListener}, which sees high-frequency events
+     * collapsed to one callback per key per tick. It is named and toggled
+     * like any other listener. Events are collected at
+     * {@link EventPriority#MONITOR}, and cancelled events are skipped.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param <K> The type events are grouped by
+     * @param <E> The type of event
+     * @param name The name to place the listener as, cannot be the same as a current listener
+     * @param type The synchronous event class to listen to
+     * @param listener The listener to deliver coalesced events to
+     * @throws ListenerReregisterException Attempted to register a Listener under a similar key
+     * @throws IllegalArgumentException The event type is fired asynchronously
+     */
+    public <K, E extends Event> void registerCoalesced(String name, Class<E> type, CoalescedListener<K, E> listener)
+            throws ListenerReregisterException {
+        EventCoalescer<K, E> coalescer = new EventCoalescer<K, E>(this.plugin, type, listener);
+        Set<RegisteredListener> handlers = new HashSet<RegisteredListener>();
+        handlers.add(new RegisteredListener(coalescer, coalescer, EventPriority.MONITOR, this.plugin, true));
+        Map<Class<? extends Event>, Set<RegisteredListener>> byEvent = new HashMap<Class<? extends Event>, Set<RegisteredListener>>();
+        byEvent.put(type, handlers);
+        this.register(name, coalescer, byEvent);
+    }
+
+    /**
+     * Registers an {@link AsyncEventHandler}, whose processing runs on a
+     * worker thread between a capture on the firing thread and a batched
+     * apply on the server thread. It is named and toggled like any other
+     * listener. Cancelled events are skipped.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param <E> The type of event
+     * @param <S> The type of snapshot
+     * @param <R> The type of result
+     * @param name The name to place the listener as, cannot be the same as a current listener
+     * @param type The event class to listen to
+     * @param priority The priority to capture the event at
+     * @param handler The handler to run
+     * @throws ListenerReregisterException Attempted to register a Listener under a similar key
+     */
+    public <E extends Event, S, R> void registerAsync(String name, Class<E> type, EventPriority priority,
+            AsyncEventHandler<E, S, R> handler) throws ListenerReregisterException {
+        EventPipeline<E, S, R> pipeline = new EventPipeline<E, S, R>(this.plugin, type, handler, this.getWorkers());
+        Set<RegisteredListener> handlers = new HashSet<RegisteredListener>();
+        handlers.add(new RegisteredListener(pipeline, pipeline, priority, this.plugin, true));
+        Map<Class<? extends Event>, Set<RegisteredListener>> byEvent = new HashMap<Class<? extends Event>, Set<RegisteredListener>>();
+        byEvent.put(type, handlers);
+        this.register(name, pipeline, byEvent);
+    }
+
+    /**
+     * Returns the worker pool for {@link AsyncEventHandler}s, creating it on
+     * first use
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The worker pool
+     */
+    private ExecutorService getWorkers() {
+        if (this.workers == null) {
+            int threads = Math.max(1, this.plugin.getConfiguration().getInt(ConfigValues.LISTENER_ASYNC_THREADS));
+            this.workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "PluginTemplate-Event-" + this.count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+
+            });
+        }
+        return this.workers;
+    }
+
+    private void register(String name, Listener listener, Map<Class<? extends Event>, Set<RegisteredListener>> handlers)
+            throws ListenerReregisterException {
+        if (this.listeners.containsKey(name) || this.conditionals.containsKey(name)) {
+            throw new ListenerReregisterException("Listener Map already contains key: " + name);
+        }
+        this.add(name, listener, handlers);
+    }
+
+    private void add(String name, Listener listener, Map<Class<? extends Event>, Set<RegisteredListener>> handlers) {
+        List<HandlerProfile> created = new ArrayList<HandlerProfile>();
+        handlers = this.profile(name, handlers, created);
+        Registration reg = new Registration(listener, handlers, created);
+        this.listeners.put(name, reg);
+        if (!this.configDisabled.contains(name) && !this.isManuallyDisabled(name)) {
+            this.enable(reg);
+        }
+    }
+
+    /**
+     * Returns whether a conditional listener was disabled by hand, which
+     * outlasts the listener being unregistered and created again
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The name of the listener
+     * @return true if the listener is conditional and was disabled by hand
+     */
+    private boolean isManuallyDisabled(String name) {
+        Conditional entry = this.conditionals.get(name);
+        return entry != null && entry.disabled;
+    }
+
+    /**
+     * Returns the profiles of every registered handler, in registration
+     * order
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return An unmodifiable view of the handler profiles
+     */
+    public List<HandlerProfile> getProfiles() {
+        return Collections.unmodifiableList(this.profiles);
+    }
+
+    /**
+     * Returns how many handler calls pass for each one that is timed
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The sample rate, 0 if profiling is off
+     */
+    int getSampleRate() {
+        return this.sampleRate;
+    }
+
+    /**
+     * Wraps every handler of a listener in a {@link ProfiledListener}. The
+     * wrapper reads the sample rate on each call, so profiling follows
+     * {@link ConfigValues#LISTENER_PROFILE_SAMPLE} across reloads.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The name of the listener
+     * @param handlers The handlers, grouped by event
+     * @param created Collects the profiles created
+     * @return The wrapped handlers, grouped by event
+     */
+    private Map<Class<? extends Event>, Set<RegisteredListener>> profile(String name,
+            Map<Class<? extends Event>, Set<RegisteredListener>> handlers, List<HandlerProfile> created) {
+        Map<Class<? extends Event>, Set<RegisteredListener>> back = new HashMap<Class<? extends Event>, Set<RegisteredListener>>();
+        for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : handlers.entrySet()) {
+            Set<RegisteredListener> wrapped = new HashSet<RegisteredListener>();
+            int index = 0;
+            for (RegisteredListener handler : entry.getValue()) {
+                String label;
+                if (handler instanceof EventExecutors.MethodListener) {
+                    label = name + "." + ((EventExecutors.MethodListener) handler).getMethod();
+                } else {
+                    label = entry.getValue().size() > 1 ? name + "#" + (++index) : name;
+                }
+                HandlerProfile profile = new HandlerProfile(label, entry.getKey());
+                this.profiles.add(profile);
+                created.add(profile);
+                wrapped.add(new ProfiledListener(handler, profile, this));
+            }
+            back.put(entry.getKey(), wrapped);
+        }
+        return back;
+    }
+
+    /**
+     * Enables or disables a registered listener. Disabling removes each of
+     * the listener's handlers from its event's {@link HandlerList}; enabling
+     * puts them back.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The name of the listener
+     * @param enabled Whether the listener should receive events
+     * @return <code>false</code> if no listener is registered under the name
+     */
+    public boolean setEnabled(String name, boolean enabled) {
+        Registration reg = this.listeners.get(name);
+        if (reg == null) {
+            return false;
+        }
+        Conditional entry = this.conditionals.get(name);
+        if (entry != null) {
+            entry.disabled = !enabled;
+        }
+        if (enabled) {
+            this.enable(reg);
+        } else {
+            this.disable(reg);
+        }
+        return true;
     }
     
     /**
@@ -110,6 +511,163 @@ public class ListenerManager {
      * @version 1.0.0
      */
     public void cleanup() {
+        this.plugin.getConfiguration().unsubscribe(this.toggler);
+        if (this.watcher != null) {
+            this.plugin.getConfiguration().unsubscribe(this.watcher);
+        }
         HandlerList.unregisterAll(this.plugin);
+        for (Registration reg : this.listeners.values()) {
+            reg.enabled = false;
+        }
+        if (this.workers != null) {
+            this.workers.shutdown();
+            try {
+                if (!this.workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                    this.workers.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                this.workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Brings listeners in line with a new set of config-disabled names.
+     * Listeners that were only disabled by config are re-enabled when their
+     * name is removed.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param disabled The names now disabled by config
+     */
+    private void applyConfig(Set<String> disabled) {
+        for (Map.Entry<String, Registration> entry : this.listeners.entrySet()) {
+            boolean was = this.configDisabled.contains(entry.getKey());
+            boolean now = disabled.contains(entry.getKey());
+            if (now && !was) {
+                this.disable(entry.getValue());
+            } else if (was && !now && !this.isManuallyDisabled(entry.getKey())) {
+                this.enable(entry.getValue());
+            }
+        }
+        this.configDisabled = disabled;
+    }
+
+    private void enable(Registration reg) {
+        if (reg.enabled) {
+            return;
+        }
+        for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : reg.handlers.entrySet()) {
+            this.getHandlerList(entry.getKey()).registerAll(entry.getValue());
+        }
+        reg.enabled = true;
+    }
+
+    private void disable(Registration reg) {
+        if (!reg.enabled) {
+            return;
+        }
+        for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : reg.handlers.entrySet()) {
+            HandlerList handlers = this.getHandlerList(entry.getKey());
+            for (RegisteredListener handler : entry.getValue()) {
+                handlers.unregister(handler);
+            }
+        }
+        reg.enabled = false;
+    }
+
+    /**
+     * Finds the {@link HandlerList} of an event, declared by the event class
+     * or the nearest superclass through a static
+     * <code>getHandlerList()</code> method
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param event The event class
+     * @return The {@link HandlerList} its handlers are registered to
+     */
+    private HandlerList getHandlerList(Class<? extends Event> event) {
+        HandlerList back = this.handlerLists.get(event);
+        if (back != null) {
+            return back;
+        }
+        Class<?> clazz = event;
+        while (clazz != null && Event.class.isAssignableFrom(clazz)) {
+            try {
+                Method method = clazz.getDeclaredMethod("getHandlerList");
+                method.setAccessible(true);
+                back = (HandlerList) method.invoke(null);
+                this.handlerLists.put(event, back);
+                return back;
+            } catch (NoSuchMethodException ex) {
+                clazz = clazz.getSuperclass();
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException("Unable to access handlers of " + event.getName(), ex);
+            } catch (InvocationTargetException ex) {
+                throw new IllegalStateException("Unable to access handlers of " + event.getName(), ex);
+            }
+        }
+        throw new IllegalArgumentException("No static getHandlerList method for " + event.getName());
+    }
+
+    private static Set<String> parseNames(String names) {
+        Set<String> back = new HashSet<String>();
+        if (names != null) {
+            for (String name : names.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    back.add(name.trim());
+                }
+            }
+        }
+        return back;
     }
+
+    /**
+     * A named listener, its handlers grouped by event, and whether they are
+     * currently registered
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Registration {
+
+        private final Listener listener;
+        private final Map<Class<? extends Event>, Set<RegisteredListener>> handlers;
+        private final List<HandlerProfile> profiles;
+        private boolean enabled = false;
+
+        private Registration(Listener listener, Map<Class<? extends Event>, Set<RegisteredListener>> handlers,
+                List<HandlerProfile> profiles) {
+            this.listener = listener;
+            this.handlers = handlers;
+            this.profiles = profiles;
+        }
+
+    }
+
+    /**
+     * A listener registered only while its condition holds
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Conditional {
+
+        private final ListenerCondition condition;
+        private final ListenerFactory factory;
+        /** Whether the listener was disabled by hand while active */
+        private boolean disabled = false;
+
+        private Conditional(ListenerCondition condition, ListenerFactory factory) {
+            this.condition = condition;
+            this.factory = factory;
+        }
+
+    }
+
 }
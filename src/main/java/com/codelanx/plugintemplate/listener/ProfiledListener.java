@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+
+/**
+ * {@link RegisteredListener} that counts the calls of another and times a
+ * sample of them into a {@link HandlerProfile}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class ProfiledListener extends RegisteredListener {
+
+    /** Placeholder, as {@link #callEvent(Event)} never uses the executor */
+    private static final EventExecutor NONE = new EventExecutor() {
+
+        public void execute(Listener listener, Event event) {
+        }
+
+    };
+    private final RegisteredListener delegate;
+    private final HandlerProfile profile;
+    private final ListenerManager manager;
+
+    /**
+     * {@link ProfiledListener} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param delegate The handler to profile
+     * @param profile The profile to record into
+     * @param manager The manager holding the sample rate
+     */
+    ProfiledListener(RegisteredListener delegate, HandlerProfile profile, ListenerManager manager) {
+        super(delegate.getListener(), ProfiledListener.NONE, delegate.getPriority(),
+                delegate.getPlugin(), delegate.isIgnoringCancelled());
+        this.delegate = delegate;
+        this.profile = profile;
+        this.manager = manager;
+    }
+
+    /**
+     * Calls the profiled handler, timing it if this call is sampled
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param event The event
+     * @throws EventException If the handler throws
+     */
+    @Override
+    public void callEvent(Event event) throws EventException {
+        if (this.isIgnoringCancelled() && event instanceof Cancellable && ((Cancellable) event).isCancelled()) {
+            return;
+        }
+        int rate = this.manager.getSampleRate();
+        if (rate <= 0 || !this.profile.count(rate)) {
+            this.delegate.callEvent(event);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            this.delegate.callEvent(event);
+        } finally {
+            this.profile.getTimings().record(System.nanoTime() - start);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.listener.listeners;
+
+import com.codelanx.plugintemplate.config.ConfigShards;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Drops per-world {@link ConfigShards} from memory when their world unloads
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class WorldShardListener implements Listener {
+
+    private final ConfigShards shards;
+
+    /**
+     * {@link WorldShardListener} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param shards The shards keyed by world name
+     */
+    public WorldShardListener(ConfigShards shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Unloads the shard of a world once it has unloaded
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param event The relevant {@link WorldUnloadEvent}
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        this.shards.unload(event.getWorld().getName());
+    }
+
+}
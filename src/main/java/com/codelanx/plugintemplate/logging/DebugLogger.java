@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.logging;
+
+import com.codelanx.plugintemplate.config.ConfigValues;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Leveled debug logging, controlled by {@link ConfigValues#DEBUG_LEVEL}.
+ * A call above the current level returns after a single comparison, without
+ * building a message or allocating. Enabled records are placed in a
+ * lock-free ring buffer and formatted and written by a background thread, so
+ * logging never blocks the caller. Records are dropped, and counted, if the
+ * buffer is full. The background thread stays parked until a record
+ * arrives, so it costs nothing while debugging is off.
+ * <br><br>
+ * Pass message arguments rather than concatenating them, so that no work is
+ * done when the level is disabled:
+ * <br>    {@code DebugLogger.log(2, "Loaded {0} entries", count);}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class DebugLogger implements Runnable {
+
+    /** Records the buffer holds before new ones are dropped */
+    private static final int CAPACITY = 1024;
+    /** The current debug level, 0 when disabled */
+    private static volatile int level = 0;
+    /** The running appender, null when stopped */
+    private static volatile DebugLogger active;
+    private final Logger target;
+    private final RingBuffer<LogRecord> buffer = new RingBuffer<LogRecord>(DebugLogger.CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    /** Whether the appender is parked, or about to park, waiting for records */
+    private final AtomicBoolean parked = new AtomicBoolean();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private DebugLogger(Logger target) {
+        this.target = target;
+        this.thread = new Thread(this, "PluginTemplate-DebugLog");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the background appender, replacing any running one
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param target The logger records are written to
+     * @param level The initial debug level, 0 to disable
+     */
+    public static synchronized void start(Logger target, int level) {
+        DebugLogger.stop();
+        DebugLogger logger = new DebugLogger(target);
+        logger.thread.start();
+        DebugLogger.active = logger;
+        DebugLogger.level = level;
+    }
+
+    /**
+     * Stops the background appender after writing any buffered records
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static synchronized void stop() {
+        DebugLogger logger = DebugLogger.active;
+        if (logger == null) {
+            return;
+        }
+        DebugLogger.active = null;
+        DebugLogger.level = 0;
+        logger.running = false;
+        LockSupport.unpark(logger.thread);
+        try {
+            logger.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sets the debug level
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The debug level, 0 to disable
+     */
+    public static void setLevel(int level) {
+        DebugLogger.level = level;
+    }
+
+    /**
+     * Returns whether messages of a level are logged, for guarding debug
+     * code that does more than build a message
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The level to check, 1 being the least verbose
+     * @return {@code true} if messages of that level are logged
+     */
+    public static boolean isEnabled(int level) {
+        return level <= DebugLogger.level;
+    }
+
+    /**
+     * Logs a message
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The level of the message, 1 being the least verbose
+     * @param message The message
+     */
+    public static void log(int level, String message) {
+        if (level <= DebugLogger.level) {
+            DebugLogger.enqueue(level, message, null, null);
+        }
+    }
+
+    /**
+     * Logs a message with one {@link java.text.MessageFormat} argument
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The level of the message, 1 being the least verbose
+     * @param format The message format
+     * @param arg The argument for {@code {0}}
+     */
+    public static void log(int level, String format, Object arg) {
+        if (level <= DebugLogger.level) {
+            DebugLogger.enqueue(level, format, new Object[] { arg }, null);
+        }
+    }
+
+    /**
+     * Logs a message with two {@link java.text.MessageFormat} arguments
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The level of the message, 1 being the least verbose
+     * @param format The message format
+     * @param arg0 The argument for {@code {0}}
+     * @param arg1 The argument for {@code {1}}
+     */
+    public static void log(int level, String format, Object arg0, Object arg1) {
+        if (level <= DebugLogger.level) {
+            DebugLogger.enqueue(level, format, new Object[] { arg0, arg1 }, null);
+        }
+    }
+
+    /**
+     * Logs a message with three {@link java.text.MessageFormat} arguments
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The level of the message, 1 being the least verbose
+     * @param format The message format
+     * @param arg0 The argument for {@code {0}}
+     * @param arg1 The argument for {@code {1}}
+     * @param arg2 The argument for {@code {2}}
+     */
+    public static void log(int level, String format, Object arg0, Object arg1, Object arg2) {
+        if (level <= DebugLogger.level) {
+            DebugLogger.enqueue(level, format, new Object[] { arg0, arg1, arg2 }, null);
+        }
+    }
+
+    /**
+     * Logs a message along with an exception and its stack trace
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param level The level of the message, 1 being the least verbose
+     * @param message The message
+     * @param thrown The exception
+     */
+    public static void log(int level, String message, Throwable thrown) {
+        if (level <= DebugLogger.level) {
+            DebugLogger.enqueue(level, message, null, thrown);
+        }
+    }
+
+    private static void enqueue(int level, String message, Object[] params, Throwable thrown) {
+        DebugLogger logger = DebugLogger.active;
+        if (logger == null) {
+            return;
+        }
+        LogRecord record = new LogRecord(Level.INFO, "[Debug " + level + "] " + message);
+        record.setParameters(params);
+        record.setThrown(thrown);
+        if (!logger.buffer.offer(record)) {
+            logger.dropped.incrementAndGet();
+        }
+        if (logger.parked.get() && logger.parked.compareAndSet(true, false)) {
+            LockSupport.unpark(logger.thread);
+        }
+    }
+
+    /**
+     * Writes buffered records until stopped
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void run() {
+        while (this.running) {
+            if (this.drain()) {
+                continue;
+            }
+            this.parked.set(true);
+            // a record offered before the flag was set would not wake us
+            if (this.buffer.isEmpty() && this.running) {
+                LockSupport.park(this);
+            }
+            this.parked.set(false);
+        }
+        this.drain();
+    }
+
+    /**
+     * Writes every buffered record
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true if anything was written
+     */
+    private boolean drain() {
+        boolean back = false;
+        LogRecord record;
+        while ((record = this.buffer.poll()) != null) {
+            record.setLoggerName(this.target.getName());
+            this.target.log(record);
+            back = true;
+        }
+        long lost = this.dropped.getAndSet(0);
+        if (lost > 0) {
+            this.target.log(Level.WARNING, "[Debug] {0} records dropped, debug output is too fast", lost);
+        }
+        return back;
+    }
+
+}
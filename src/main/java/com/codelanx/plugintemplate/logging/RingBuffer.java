@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free queue of many producers and a single consumer. Each slot
+ * carries a sequence number telling producers and the consumer whose turn it
+ * is, so neither side ever blocks; when the buffer is full, offers fail
+ * instead of waiting.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ *
+ * @param <E> The type of element held
+ */
+final class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    /** Next position to be claimed by a producer */
+    private final AtomicLong tail = new AtomicLong();
+    /** Next position to be read, only touched by the consumer */
+    private long head = 0;
+
+    /**
+     * {@link RingBuffer} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param capacity The number of slots, must be a power of two
+     */
+    RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<E>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element, safe to call from any thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param element The element to add
+     * @return false if the buffer was full and the element was not added
+     */
+    boolean offer(E element) {
+        long pos;
+        int index;
+        while (true) {
+            pos = this.tail.get();
+            index = (int) pos & this.mask;
+            long diff = this.sequences.get(index) - pos;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+        this.elements.lazySet(index, element);
+        // a full volatile write, so a producer checking whether the consumer
+        // is parked afterwards cannot miss a consumer checking isEmpty()
+        this.sequences.set(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * Returns whether there is nothing to poll. Must only be called from the
+     * consumer thread.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true if {@link #poll()} would return null
+     */
+    boolean isEmpty() {
+        return this.sequences.get((int) this.head & this.mask) != this.head + 1;
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the consumer thread.
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The oldest element, or null if empty
+     */
+    E poll() {
+        int index = (int) this.head & this.mask;
+        if (this.sequences.get(index) != this.head + 1) {
+            return null;
+        }
+        E back = this.elements.get(index);
+        this.elements.lazySet(index, null);
+        this.sequences.lazySet(index, this.head + this.mask + 1);
+        this.head++;
+        return back;
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Low-overhead, lock-free latency histogram. Values are counted into
+ * log-linear buckets, eight per power of two, so recording is a couple of
+ * bit operations and one atomic increment, and reported percentiles are
+ * accurate to within 12.5%.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class LatencyHistogram {
+
+    /** Bits of linear resolution within each power of two */
+    private static final int SUB_BITS = 3;
+    /** Buckets within each power of two */
+    private static final int SUB_COUNT = 1 << LatencyHistogram.SUB_BITS;
+    /** Bucket counts */
+    private final AtomicLongArray buckets = new AtomicLongArray((64 - LatencyHistogram.SUB_BITS) * LatencyHistogram.SUB_COUNT);
+    /** Largest value recorded */
+    private final AtomicLong max = new AtomicLong();
+    /** Sum of all values recorded */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * Records a value
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param nanos The value to record, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        this.buckets.incrementAndGet(LatencyHistogram.indexOf(nanos));
+        this.total.addAndGet(nanos);
+        long current = this.max.get();
+        while (nanos > current && !this.max.compareAndSet(current, nanos)) {
+            current = this.max.get();
+        }
+    }
+
+    /**
+     * Returns the number of values recorded
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The number of values
+     */
+    public long getCount() {
+        long back = 0;
+        for (int i = 0; i < this.buckets.length(); i++) {
+            back += this.buckets.get(i);
+        }
+        return back;
+    }
+
+    /**
+     * Returns the largest value recorded
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The maximum, in nanoseconds
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the mean of the values recorded
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The mean in nanoseconds, 0 if empty
+     */
+    public double getMean() {
+        long count = this.getCount();
+        return count == 0 ? 0 : (double) this.total.get() / count;
+    }
+
+    /**
+     * Returns an upper bound of the value at a percentile
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param percentile The percentile, between 0 and 1
+     * @return The value at that percentile in nanoseconds, 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[this.buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(LatencyHistogram.upperBound(i), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * Clears all recorded values
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void reset() {
+        for (int i = 0; i < this.buckets.length(); i++) {
+            this.buckets.set(i, 0);
+        }
+        this.max.set(0);
+        this.total.set(0);
+    }
+
+    /**
+     * Returns the bucket a value is counted in
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param value A non-negative value
+     * @return The bucket index
+     */
+    private static int indexOf(long value) {
+        if (value < LatencyHistogram.SUB_COUNT) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - LatencyHistogram.SUB_BITS)) & (LatencyHistogram.SUB_COUNT - 1);
+        return (exp - LatencyHistogram.SUB_BITS + 1) * LatencyHistogram.SUB_COUNT + sub;
+    }
+
+    /**
+     * Returns the largest value counted in a bucket
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param index The bucket index
+     * @return The inclusive upper bound of the bucket
+     */
+    private static long upperBound(int index) {
+        if (index < LatencyHistogram.SUB_COUNT) {
+            return index;
+        }
+        int shift = index / LatencyHistogram.SUB_COUNT - 1;
+        long sub = index % LatencyHistogram.SUB_COUNT;
+        return ((LatencyHistogram.SUB_COUNT + sub + 1) << shift) - 1;
+    }
+
+}
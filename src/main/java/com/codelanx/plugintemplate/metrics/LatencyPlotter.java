@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.metrics;
+
+/**
+ * {@link Metrics.Plotter} reporting a percentile of a
+ * {@link LatencyHistogram} in microseconds
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class LatencyPlotter extends Metrics.Plotter {
+
+    private final LatencyHistogram histogram;
+    private final double percentile;
+
+    /**
+     * {@link LatencyPlotter} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param name The column name of the plotter
+     * @param histogram The {@link LatencyHistogram} to report
+     * @param percentile The percentile to report, between 0 and 1
+     */
+    public LatencyPlotter(String name, LatencyHistogram histogram, double percentile) {
+        super(name);
+        this.histogram = histogram;
+        this.percentile = percentile;
+    }
+
+    /**
+     * Returns the reported percentile in microseconds
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The latency, in microseconds
+     */
+    @Override
+    public int getValue() {
+        return (int) Math.min(Integer.MAX_VALUE, this.histogram.getPercentile(this.percentile) / 1000L);
+    }
+
+}
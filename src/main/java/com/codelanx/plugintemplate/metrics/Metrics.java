@@ -27,6 +27,7 @@
  */
 package com.codelanx.plugintemplate.metrics;
 
+import com.codelanx.plugintemplate.logging.DebugLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -51,7 +52,6 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.UUID;
-import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
 
 public class Metrics {
@@ -101,11 +101,6 @@ public class Metrics {
      */
     private final String guid;
 
-    /**
-     * Debug mode
-     */
-    private final boolean debug;
-
     /**
      * Lock for synchronization
      */
@@ -130,6 +125,7 @@ public class Metrics {
         // add some defaults
         configuration.addDefault("opt-out", false);
         configuration.addDefault("guid", UUID.randomUUID().toString());
+        // kept for the shared PluginMetrics file; this plugin logs through DebugLogger instead
         configuration.addDefault("debug", false);
 
         // Do we need to create the file?
@@ -140,7 +136,6 @@ public class Metrics {
 
         // Load the guid then
         guid = configuration.getString("guid");
-        debug = configuration.getBoolean("debug", false);
     }
 
     /**
@@ -226,9 +221,7 @@ public class Metrics {
                         // Each post thereafter will be a ping
                         firstPost = false;
                     } catch (IOException e) {
-                        if (debug) {
-                            Bukkit.getLogger().log(Level.INFO, "[Metrics] " + e.getMessage());
-                        }
+                        DebugLogger.log(1, "[Metrics] {0}", e.getMessage());
                     }
                 }
             }, 0, PING_INTERVAL * 1200);
@@ -248,14 +241,10 @@ public class Metrics {
                 // Reload the metrics file
                 configuration.load(getConfigFile());
             } catch (IOException ex) {
-                if (debug) {
-                    Bukkit.getLogger().log(Level.INFO, "[Metrics] " + ex.getMessage());
-                }
+                DebugLogger.log(1, "[Metrics] {0}", ex.getMessage());
                 return true;
             } catch (InvalidConfigurationException ex) {
-                if (debug) {
-                    Bukkit.getLogger().log(Level.INFO, "[Metrics] " + ex.getMessage());
-                }
+                DebugLogger.log(1, "[Metrics] {0}", ex.getMessage());
                 return true;
             }
             return configuration.getBoolean("opt-out", false);
@@ -441,8 +430,9 @@ public class Metrics {
 
         connection.setDoOutput(true);
 
-        if (debug) {
-            System.out.println("[Metrics] Prepared request for " + pluginName + " uncompressed=" + uncompressed.length + " compressed=" + compressed.length);
+        if (DebugLogger.isEnabled(2)) {
+            DebugLogger.log(2, "[Metrics] Prepared request for {0} uncompressed={1} compressed={2}",
+                    pluginName, uncompressed.length, compressed.length);
         }
 
         // Write the data
@@ -498,7 +488,7 @@ public class Metrics {
             gzos = new GZIPOutputStream(baos);
             gzos.write(input.getBytes("UTF-8"));
         } catch (IOException e) {
-            e.printStackTrace();
+            DebugLogger.log(1, "[Metrics] Error compressing request", e);
         } finally {
             if (gzos != null) try {
                 gzos.close();
@@ -629,7 +619,7 @@ public class Metrics {
          */
         private final Set<Plotter> plotters = new LinkedHashSet<Plotter>();
 
-        private Graph(final String name) {
+        protected Graph(final String name) {
             this.name = name;
         }
 
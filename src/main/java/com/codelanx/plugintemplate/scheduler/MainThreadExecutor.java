@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * {@link Executor} that runs tasks on the server thread. Tasks submitted
+ * from the server thread run immediately, anything else is handed to the
+ * bukkit scheduler for the next tick.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class MainThreadExecutor implements Executor {
+
+    private final Plugin plugin;
+
+    /**
+     * {@link MainThreadExecutor} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param plugin The plugin to schedule tasks under
+     */
+    public MainThreadExecutor(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs a task on the server thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param task The task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            this.plugin.getServer().getScheduler().runTask(this.plugin, task);
+        }
+    }
+
+    /**
+     * Calls a task on the server thread, for use by code running off-thread
+     * that needs to touch the bukkit API
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param <T> The return type of the task
+     * @param task The task to call
+     * @return A {@link CompletableFuture} completed with the task's result
+     */
+    public <T> CompletableFuture<T> call(final Callable<T> task) {
+        final CompletableFuture<T> back = new CompletableFuture<T>();
+        this.execute(new Runnable() {
+
+            public void run() {
+                try {
+                    back.complete(task.call());
+                } catch (Throwable ex) {
+                    back.completeExceptionally(ex);
+                }
+            }
+
+        });
+        return back;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.scheduler;
+
+/**
+ * Incremental work run by a {@link TickBudgetExecutor}. Each call to
+ * {@link #step()} should do one small unit of work, the executor decides how
+ * many units fit into a tick.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public interface SlicedTask {
+
+    /**
+     * Does one unit of work on the server thread
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return true if more work remains, false once finished
+     */
+    public abstract boolean step();
+
+    /**
+     * Returns how far along this task is
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @return The progress between 0 and 1, or a negative value if unknown
+     */
+    public default double getProgress() {
+        return -1;
+    }
+
+    /**
+     * Called on the server thread once {@link #step()} returns false
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public default void onComplete() {
+    }
+
+    /**
+     * Called on the server thread if the task is cancelled before finishing
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public default void onCancel() {
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.scheduler;
+
+import static com.codelanx.plugintemplate.PluginTemplate.__;
+import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.config.ConfigListener;
+import com.codelanx.plugintemplate.config.ConfigSnapshot;
+import com.codelanx.plugintemplate.config.ConfigValues;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Runs {@link SlicedTask}s on the server thread under a per-tick time
+ * budget. Tasks are stepped round-robin until the budget for the tick is
+ * spent, and the rotation carries over to the next tick, so a task is never
+ * starved by the ones ahead of it. The repeating bukkit task only exists
+ * while there is work.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class TickBudgetExecutor implements Runnable {
+
+    private final PluginTemplate plugin;
+    /** Hands submissions from other threads to the server thread */
+    private final MainThreadExecutor mainThread;
+    /** Nanoseconds of work allowed per tick */
+    private long budget;
+    /** Ticks between progress reports */
+    private int reportInterval;
+    /** Re-reads {@link #budget} and {@link #reportInterval} on reload */
+    private final ConfigListener tuner;
+    /** Tasks submitted since the last tick, from any thread */
+    private final Queue<Handle> incoming = new ConcurrentLinkedQueue<Handle>();
+    /** Tasks being run, next to step at the head, only touched on the server thread */
+    private final Deque<Handle> running = new ArrayDeque<Handle>();
+    /** The repeating bukkit task, null while idle */
+    private BukkitTask task;
+    private long tick = 0;
+
+    /**
+     * {@link TickBudgetExecutor} constructor
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param plugin The main {@link PluginTemplate} instance
+     */
+    public TickBudgetExecutor(PluginTemplate plugin) {
+        this.plugin = plugin;
+        this.mainThread = new MainThreadExecutor(plugin);
+        this.tune(this.plugin.getConfiguration().getSnapshot());
+        this.tuner = new ConfigListener() {
+
+            public void onConfigChange(ConfigSnapshot snapshot, Set<ConfigValues> changed) {
+                tune(snapshot);
+            }
+
+        };
+        this.plugin.getConfiguration().subscribe(this.tuner, this.mainThread,
+                ConfigValues.TASK_TICK_BUDGET, ConfigValues.TASK_PROGRESS_INTERVAL);
+    }
+
+    /**
+     * Applies the configured budget and report interval
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param snapshot The configuration to read from
+     */
+    private void tune(ConfigSnapshot snapshot) {
+        this.budget = Math.max(1, snapshot.getInt(ConfigValues.TASK_TICK_BUDGET));
+        this.reportInterval = snapshot.getInt(ConfigValues.TASK_PROGRESS_INTERVAL);
+    }
+
+    /**
+     * Submits a task without progress reports
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param task The {@link SlicedTask} to run
+     * @return A {@link Handle} to track or cancel the task
+     */
+    public Handle submit(SlicedTask task) {
+        return this.submit(task, null);
+    }
+
+    /**
+     * Submits a task, reporting its progress to a sender
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     * 
+     * @param task The {@link SlicedTask} to run
+     * @param sender The sender to report progress and completion to, or null
+     * @return A {@link Handle} to track or cancel the task
+     */
+    public Handle submit(SlicedTask task, CommandSender sender) {
+        Handle back = new Handle(task, sender);
+        this.incoming.add(back);
+        this.mainThread.execute(new Runnable() {
+
+            public void run() {
+                start();
+            }
+
+        });
+        return back;
+    }
+
+    /**
+     * Schedules the repeating task if it is not running
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void start() {
+        if (this.task == null && !this.incoming.isEmpty()) {
+            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this, 1L, 1L);
+        }
+    }
+
+    /**
+     * Steps the running tasks until this tick's budget is spent
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void run() {
+        this.tick++;
+        Handle next;
+        while ((next = this.incoming.poll()) != null) {
+            this.running.add(next);
+        }
+        Iterator<Handle> itr = this.running.iterator();
+        while (itr.hasNext()) {
+            Handle h = itr.next();
+            if (h.cancelled) {
+                itr.remove();
+                h.finish(false);
+            }
+        }
+        long deadline = System.nanoTime() + this.budget;
+        while (!this.running.isEmpty() && System.nanoTime() - deadline < 0) {
+            Handle h = this.running.poll();
+            if (h.cancelled) {
+                h.finish(false);
+                continue;
+            }
+            boolean more;
+            try {
+                more = h.task.step();
+            } catch (RuntimeException ex) {
+                this.plugin.getLogger().log(Level.SEVERE, "Error running sliced task", ex);
+                more = false;
+                h.cancelled = true;
+            }
+            if (more) {
+                this.running.offer(h);
+            } else {
+                h.finish(!h.cancelled);
+            }
+        }
+        if (this.reportInterval > 0 && this.tick % this.reportInterval == 0) {
+            for (Handle h : this.running) {
+                h.report();
+            }
+        }
+        if (this.running.isEmpty() && this.incoming.isEmpty()) {
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    /**
+     * Cancels every task and stops the repeating task
+     * 
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void cleanup() {
+        this.plugin.getConfiguration().unsubscribe(this.tuner);
+        Handle next;
+        while ((next = this.incoming.poll()) != null) {
+            this.running.add(next);
+        }
+        for (Handle h : this.running) {
+            h.cancelled = true;
+            h.finish(false);
+        }
+        this.running.clear();
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    /**
+     * Tracks a submitted {@link SlicedTask}
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    public static final class Handle {
+
+        private final SlicedTask task;
+        private final CommandSender sender;
+        private volatile boolean cancelled = false;
+        private volatile boolean done = false;
+
+        private Handle(SlicedTask task, CommandSender sender) {
+            this.task = task;
+            this.sender = sender;
+        }
+
+        /**
+         * Cancels the task before its next step, safe to call from any thread
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        /**
+         * Returns whether or not the task has finished or been cancelled
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @return true if the task will not be stepped again
+         */
+        public boolean isDone() {
+            return this.done;
+        }
+
+        /**
+         * Returns whether or not the task was cancelled
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @return true if cancelled
+         */
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        /**
+         * Returns the progress of the task
+         * 
+         * @since 1.0.0
+         * @version 1.0.0
+         * 
+         * @return The progress between 0 and 1, or negative if unknown
+         */
+        public double getProgress() {
+            return this.done ? 1 : this.task.getProgress();
+        }
+
+        private void report() {
+            double progress = this.task.getProgress();
+            if (this.sender != null && progress >= 0) {
+                this.sender.sendMessage(__(String.format("&7Progress: &e%.1f%%", progress * 100)));
+            }
+        }
+
+        private void finish(boolean completed) {
+            this.done = true;
+            if (completed) {
+                this.task.onComplete();
+            } else {
+                this.task.onCancel();
+            }
+            if (this.sender != null) {
+                this.sender.sendMessage(__(completed ? "&aTask complete" : "&cTask cancelled"));
+            }
+        }
+
+    }
+
+}
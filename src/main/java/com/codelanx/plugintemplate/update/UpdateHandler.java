@@ -20,6 +20,7 @@
 package com.codelanx.plugintemplate.update;
 
 import com.codelanx.plugintemplate.PluginTemplate;
+import com.codelanx.plugintemplate.logging.DebugLogger;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -50,7 +51,6 @@ public class UpdateHandler {
     protected Result result = Result.INCOMPLETE;
     protected final String file;
     protected final int id;
-    protected byte debug = 0;
 
     /**
      * Constructor for {@link UpdateHandler}
@@ -78,7 +78,6 @@ public class UpdateHandler {
      */
     public void runCheck() {
         UpdateRunnable ur = new UpdateRunnable(this.plugin, choice, this.id, this.file);
-        ur.setDebug(this.debug);
         this.plugin.getServer().getScheduler().runTaskLater(this.plugin,
                 ur,
                 10L);
@@ -108,6 +107,9 @@ public class UpdateHandler {
      * @version 1.4.5
      */
     protected final void registerNewNotifier() {
+        if (this.plugin.getListenerManager().isRegistered("update")) {
+            return;
+        }
         this.plugin.getListenerManager().registerListener("update",
                 new UpdateListener("A new update is available for "
                         + this.plugin.getDescription().getFullName()
@@ -126,18 +128,6 @@ public class UpdateHandler {
         return this.result;
     }
 
-    /**
-     * Sets the debug level of this update check
-     * 
-     * @since 1.4.5
-     * @version 1.4.5
-     * 
-     * @param debug The debug level to set
-     */
-    public final void setDebug(byte debug) {
-        this.debug = debug;
-    }
-
 }
 
 /**
@@ -326,15 +316,13 @@ class UpdateRunnable extends UpdateHandler implements Runnable {
             reader = new BufferedReader(isr);
             json = reader.readLine();
         } catch (MalformedURLException ex) {
-            plugin.getLogger().log(Level.SEVERE,
-                    "Error checking for an update",
-                    this.debug >= 3 ? ex : "");
+            plugin.getLogger().log(Level.SEVERE, "Error checking for an update");
+            DebugLogger.log(3, "Malformed update url", ex);
             this.result = Result.ERROR_BADID;
             this.latest = null;
         } catch (IOException ex) {
-            plugin.getLogger().log(Level.SEVERE,
-                    "Error checking for an update",
-                    this.debug >= 3 ? ex : "");
+            plugin.getLogger().log(Level.SEVERE, "Error checking for an update");
+            DebugLogger.log(3, "Update check failed", ex);
         } finally {
             try {
                 if (stream != null) {
@@ -347,9 +335,8 @@ class UpdateRunnable extends UpdateHandler implements Runnable {
                     reader.close();
                 }
             } catch (IOException ex) {
-                this.plugin.getLogger().log(Level.SEVERE,
-                        "Error closing updater streams!",
-                        this.debug >= 3 ? ex : "");
+                this.plugin.getLogger().log(Level.SEVERE, "Error closing updater streams!");
+                DebugLogger.log(3, "Closing updater streams failed", ex);
             }
         }
         if (json != null) {
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import com.codelanx.plugintemplate.command.commands.SubCommand;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import org.bukkit.Server;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Completes command lines through {@link CompletionIndex}, with senders and
+ * players backed by proxies
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class CompletionIndexTest {
+
+    private final CommandNode root = new CommandNode("", null);
+    private final CompletionIndex index = new CompletionIndex(this.root);
+    private CommandSender sender;
+
+    @Before
+    public void setUp() throws CommandReregisterException {
+        final Server server = CompletionIndexTest.proxy(Server.class, new InvocationHandler() {
+
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getOnlinePlayers")) {
+                    Player[] players = {CompletionIndexTest.player("Alex"), CompletionIndexTest.player("Notch")};
+                    return method.getReturnType().isArray() ? players : Arrays.asList(players);
+                }
+                return null;
+            }
+
+        });
+        this.sender = CompletionIndexTest.proxy(CommandSender.class, new InvocationHandler() {
+
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("hasPermission")) {
+                    return !"test.hidden".equals(args[0]);
+                }
+                return method.getName().equals("getServer") ? server : null;
+            }
+
+        });
+        this.register(this.root, "msg", null, null, new String[]{"hello", "hi"});
+        CommandNode kick = this.register(this.root, "kick", null, null, new String[0]);
+        this.register(kick, "all", null, new String[0], new String[0]);
+        this.register(kick, "secret", "test.hidden", new String[0], new String[0]);
+        this.register(this.root, "mode", null, new String[]{"creative", "survival"}, null);
+    }
+
+    @Test
+    public void firstArgumentDefersToPlayers() {
+        assertNull(this.index.complete(this.sender, "msg", new String[]{""}));
+    }
+
+    @Test
+    public void laterArgumentDefersToPlayers() {
+        assertNull(this.index.complete(this.sender, "mode", new String[]{"creative", ""}));
+    }
+
+    @Test
+    public void laterArgumentUsesCompletions() {
+        assertEquals(Arrays.asList("hello", "hi"), this.index.complete(this.sender, "msg", new String[]{"Alex", "h"}));
+    }
+
+    @Test
+    public void subcommandsMergeWithPlayers() {
+        assertEquals(Arrays.asList("Alex", "all"), this.index.complete(this.sender, "kick", new String[]{"a"}));
+        assertEquals(Arrays.asList("Alex", "all", "Notch"), this.index.complete(this.sender, "kick", new String[]{""}));
+    }
+
+    @Test
+    public void fixedFirstArgumentIsFiltered() {
+        List<String> back = this.index.complete(this.sender, "mode", new String[]{"S"});
+        assertEquals(Arrays.asList("survival"), back);
+    }
+
+    /**
+     * Registers a command completing its first two arguments as given, a
+     * null entry deferring to player names
+     */
+    private CommandNode register(CommandNode parent, String name, String permission, final String[] first,
+            final String[] second) throws CommandReregisterException {
+        CommandNode node = new CommandNode(name, parent);
+        parent.putChild(name, node);
+        SubCommand command = new SubCommand() {
+
+            public boolean execute(CommandSender sender, CommandArguments args) {
+                return true;
+            }
+
+            @Override
+            public String[] getCompletions(int index) {
+                return index == 0 ? first : index == 1 ? second : new String[0];
+            }
+
+        };
+        node.setCommand(command, new String[0], permission, "", "", false);
+        return node;
+    }
+
+    private static Player player(final String name) {
+        return CompletionIndexTest.proxy(Player.class, new InvocationHandler() {
+
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return method.getName().equals("getName") ? name : null;
+            }
+
+        });
+    }
+
+    /**
+     * Implements a bukkit interface through a handler, with identity
+     * equality so the proxy can key the sender cache
+     */
+    private static <T> T proxy(Class<T> type, final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("hashCode") && method.getParameterTypes().length == 0) {
+                    return System.identityHashCode(proxy);
+                }
+                if (method.getName().equals("equals") && method.getParameterTypes().length == 1) {
+                    return proxy == args[0];
+                }
+                return handler.invoke(proxy, method, args);
+            }
+
+        }));
+    }
+
+}
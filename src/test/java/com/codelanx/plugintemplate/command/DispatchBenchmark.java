@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import com.codelanx.plugintemplate.command.commands.SubCommand;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Measures the per-call cost of resolving a command and handing over its
+ * arguments, comparing the original dispatch (a {@link HashMap} lookup and a
+ * fresh copy of the arguments) with the {@link CommandNode} trie and
+ * {@link CommandArguments} views used by {@link CommandHandler}. Only the
+ * dispatch is measured; permission checks, rate limits and timings are the
+ * same for both.
+ * <br><br>
+ * This is a plain harness rather than a unit test, run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.codelanx.plugintemplate.command.DispatchBenchmark
+ * </pre>
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class DispatchBenchmark {
+
+    private static final int COMMANDS = 32;
+    private static final int CALLS = 1000000;
+    private static final int WARMUP = 10;
+    private static final int RUNS = 10;
+    /** Consumed results, so the JIT cannot drop the work */
+    private static volatile long sink;
+
+    private final Map<String, LegacyCommand> legacy = new HashMap<String, LegacyCommand>();
+    private final CommandNode root = new CommandNode("", null);
+    /** Each call's bukkit command name and arguments, cycled through */
+    private final String[] names;
+    private final String[][] args;
+
+    private DispatchBenchmark() throws CommandReregisterException {
+        SubCommand command = new SubCommand() {
+
+            public boolean execute(CommandSender sender, CommandArguments args) {
+                return args.length() >= 0;
+            }
+
+        };
+        for (int i = 0; i < DispatchBenchmark.COMMANDS; i++) {
+            String name = "command" + i;
+            this.legacy.put(name, new LegacyCommand());
+            CommandNode node = new CommandNode(name, this.root);
+            this.root.putChild(name, node);
+            CommandNode sub = new CommandNode("reload", node);
+            node.putChild("reload", sub);
+            sub.setCommand(command, new String[0], null, "", "", false);
+            node.setCommand(command, new String[0], null, "", "", false);
+        }
+        this.names = new String[DispatchBenchmark.COMMANDS];
+        this.args = new String[DispatchBenchmark.COMMANDS][];
+        for (int i = 0; i < this.names.length; i++) {
+            this.names[i] = "command" + i;
+            this.args[i] = i % 2 == 0
+                    ? new String[] { "reload", "config", "now" }
+                    : new String[] { "player" + i, "10", "hello", "world" };
+        }
+    }
+
+    /**
+     * Dispatches the way {@link CommandHandler} did before the trie: a map
+     * lookup, then a copy of every argument after the first
+     */
+    private long legacy(int calls) {
+        long back = 0;
+        for (int i = 0; i < calls; i++) {
+            int n = i % this.names.length;
+            LegacyCommand command = this.legacy.get(this.names[n]);
+            String[] args = this.args[n];
+            String[] newArgs = new String[args.length - 1];
+            for (int j = 0; j < newArgs.length; j++) {
+                newArgs[j] = args[j + 1];
+            }
+            if (command.execute(null, newArgs)) {
+                back += newArgs.length;
+            }
+        }
+        return back;
+    }
+
+    /**
+     * Dispatches the way {@link CommandHandler#onCommand} does now: a trie
+     * walk over the arguments, then a view starting after the consumed ones
+     */
+    private long trie(int calls) {
+        long back = 0;
+        for (int i = 0; i < calls; i++) {
+            int n = i % this.names.length;
+            String[] args = this.args[n];
+            CommandNode node = this.root.getExactChild(this.names[n]);
+            int depth = 0;
+            while (depth < args.length) {
+                CommandNode next = node.getChild(args[depth]);
+                if (next == null) {
+                    break;
+                }
+                node = next;
+                depth++;
+            }
+            CommandArguments view = new CommandArguments(args, depth);
+            if (node.getCommand().execute(null, view)) {
+                back += view.length();
+            }
+        }
+        return back;
+    }
+
+    private double[] measure(boolean trie) {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean alloc = mx instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) mx : null;
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < DispatchBenchmark.WARMUP; i++) {
+            DispatchBenchmark.sink += trie ? this.trie(DispatchBenchmark.CALLS) : this.legacy(DispatchBenchmark.CALLS);
+        }
+        double[] times = new double[DispatchBenchmark.RUNS];
+        long bytes = 0;
+        for (int i = 0; i < DispatchBenchmark.RUNS; i++) {
+            long before = alloc == null ? 0 : alloc.getThreadAllocatedBytes(id);
+            long start = System.nanoTime();
+            DispatchBenchmark.sink += trie ? this.trie(DispatchBenchmark.CALLS) : this.legacy(DispatchBenchmark.CALLS);
+            times[i] = (System.nanoTime() - start) / (double) DispatchBenchmark.CALLS;
+            bytes += alloc == null ? 0 : alloc.getThreadAllocatedBytes(id) - before;
+        }
+        Arrays.sort(times);
+        return new double[] { times[times.length / 2], times[0], bytes / (double) DispatchBenchmark.RUNS / DispatchBenchmark.CALLS };
+    }
+
+    public static void main(String[] args) throws CommandReregisterException {
+        DispatchBenchmark bench = new DispatchBenchmark();
+        for (boolean trie : new boolean[] { false, true }) {
+            double[] result = bench.measure(trie);
+            System.out.println(String.format("%-22s %8.1f ns/call median, %8.1f ns/call best, %6.1f bytes/call",
+                    trie ? "trie + view" : "hashmap + copy", result[0], result[1], result[2]));
+        }
+    }
+
+    /**
+     * The {@link SubCommand} signature before argument views, taking a copied
+     * array
+     */
+    private static final class LegacyCommand {
+
+        private boolean execute(CommandSender sender, String[] args) {
+            return args.length >= 0;
+        }
+
+    }
+
+}
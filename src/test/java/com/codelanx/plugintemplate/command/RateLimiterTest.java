@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.command;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the token arithmetic of {@link RateLimiter} against a manual clock
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final UUID ALICE = new UUID(0, 1);
+    private static final UUID BOB = new UUID(0, 2);
+    /** The time the limiter sees, in nanoseconds */
+    private long now = 123456789L;
+    private final LongSupplier clock = new LongSupplier() {
+
+        public long getAsLong() {
+            return now;
+        }
+
+    };
+
+    @Test
+    public void burstIsAdmittedInARow() {
+        RateLimiter limiter = new RateLimiter(3, 1000, this.clock);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        }
+        assertEquals(RateLimiterTest.SECOND, limiter.tryAcquire(RateLimiterTest.ALICE));
+    }
+
+    @Test
+    public void waitShrinksAsTimePasses() {
+        RateLimiter limiter = new RateLimiter(1, 1000, this.clock);
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        this.now += TimeUnit.MILLISECONDS.toNanos(400);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(600), limiter.tryAcquire(RateLimiterTest.ALICE));
+        this.now += TimeUnit.MILLISECONDS.toNanos(600);
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        assertEquals(RateLimiterTest.SECOND, limiter.tryAcquire(RateLimiterTest.ALICE));
+    }
+
+    @Test
+    public void idleTimeRefillsOnlyUpToBurst() {
+        RateLimiter limiter = new RateLimiter(2, 1000, this.clock);
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        this.now += 60 * RateLimiterTest.SECOND;
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        assertTrue(limiter.tryAcquire(RateLimiterTest.ALICE) > 0);
+    }
+
+    @Test
+    public void sendersHaveSeparateBuckets() {
+        RateLimiter limiter = new RateLimiter(1, 1000, this.clock);
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.ALICE));
+        assertTrue(limiter.tryAcquire(RateLimiterTest.ALICE) > 0);
+        assertEquals(0, limiter.tryAcquire(RateLimiterTest.BOB));
+    }
+
+    @Test
+    public void refilledBucketsAreEvicted() {
+        RateLimiter limiter = new RateLimiter(2, 1000, this.clock);
+        limiter.tryAcquire(RateLimiterTest.ALICE);
+        limiter.tryAcquire(RateLimiterTest.BOB);
+        limiter.tryAcquire(RateLimiterTest.BOB);
+        this.now += RateLimiterTest.SECOND;
+        assertEquals(1, limiter.evictIdle());
+        this.now += RateLimiterTest.SECOND;
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(0, limiter.evictIdle());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void burstMustBePositive() {
+        new RateLimiter(0, 1000, this.clock);
+    }
+
+    @Test
+    public void overridesTakePrecedenceByPath() {
+        Map<String, Object> overrides = new HashMap<String, Object>();
+        overrides.put("admin reload.burst", 2);
+        overrides.put("admin reload.period", 3600000L);
+        overrides.put("spawn.burst", 0);
+        overrides.put("home.period", "soon");
+        RateLimiter reload = RateLimiter.create("admin reload", 5, 1000, overrides);
+        assertEquals(0, reload.tryAcquire(RateLimiterTest.ALICE));
+        assertEquals(0, reload.tryAcquire(RateLimiterTest.ALICE));
+        long wait = reload.tryAcquire(RateLimiterTest.ALICE);
+        assertTrue(wait > 0 && wait <= TimeUnit.HOURS.toNanos(1));
+        assertNull(RateLimiter.create("spawn", 5, 1000, overrides));
+        RateLimiter home = RateLimiter.create("home", 1, 3600000L, overrides);
+        assertEquals(0, home.tryAcquire(RateLimiterTest.ALICE));
+        assertTrue(home.tryAcquire(RateLimiterTest.ALICE) > 0);
+    }
+
+    @Test
+    public void unlimitedWithoutDefaultsOrOverrides() {
+        assertNull(RateLimiter.create("admin", 0, 1000, null));
+        assertNull(RateLimiter.create("admin", 5, 0, new HashMap<String, Object>()));
+    }
+
+}
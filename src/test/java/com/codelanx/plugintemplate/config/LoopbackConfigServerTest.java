@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.config;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stands up a {@link LoopbackConfigServer} and talks to it through
+ * {@link LoopbackConfigSource}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class LoopbackConfigServerTest {
+
+    private static final Logger LOGGER = Logger.getLogger(LoopbackConfigServerTest.class.getName());
+    private LoopbackConfigServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = new LoopbackConfigServer(0, LoopbackConfigServerTest.LOGGER);
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop();
+    }
+
+    @Test
+    public void pollReturnsDiffsNewerThanVersion() throws IOException {
+        LoopbackConfigSource source = new LoopbackConfigSource(this.server.getPort());
+        assertEquals(1, source.publish(Collections.<String, Object>singletonMap("update.check", false)));
+        assertEquals(2, source.publish(Collections.<String, Object>singletonMap("commands.async-threads", 4)));
+        List<ConfigDiff> diffs = source.poll(1);
+        assertEquals(1, diffs.size());
+        assertEquals(2, diffs.get(0).getVersion());
+        assertEquals(4, diffs.get(0).getChanges().get("commands.async-threads"));
+        assertTrue(source.poll(2).isEmpty());
+        assertEquals(this.server.getEpoch(), source.getEpoch());
+    }
+
+    @Test
+    public void restartedServerHasNewEpoch() throws IOException {
+        Map<String, Object> changes = Collections.<String, Object>singletonMap("update.check", false);
+        this.server.publish(changes);
+        LoopbackConfigSource source = new LoopbackConfigSource(this.server.getPort());
+        source.poll(0);
+        long first = source.getEpoch();
+        int port = this.server.getPort();
+        this.server.stop();
+        this.server = new LoopbackConfigServer(port, LoopbackConfigServerTest.LOGGER);
+        this.server.start();
+        this.server.publish(changes);
+        assertEquals(1, source.poll(0).size());
+        assertNotEquals(first, source.getEpoch());
+    }
+
+    @Test(expected = IOException.class)
+    public void negativeCountIsRejected() throws Exception {
+        final ServerSocket fake = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread t = new Thread(new Runnable() {
+
+            public void run() {
+                try (Socket client = fake.accept()) {
+                    client.getInputStream().read(new byte[9]);
+                    DataOutputStream out = new DataOutputStream(client.getOutputStream());
+                    out.writeLong(1);
+                    out.writeInt(-1);
+                    out.flush();
+                } catch (IOException ex) {
+                    // the client reports the failure
+                }
+            }
+
+        });
+        t.start();
+        try {
+            new LoopbackConfigSource(fake.getLocalPort()).poll(0);
+        } finally {
+            fake.close();
+            t.join();
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.logging;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link DebugLogger} appender against a counting {@link Handler},
+ * checking that it parks between bursts and wakes for every record
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class DebugLoggerTest {
+
+    private static final int THREADS = 4;
+    private static final int BURSTS = 100;
+    private static final int PER_BURST = 50;
+    /** Records written by the appender, dropped ones included */
+    private final AtomicLong delivered = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        Logger target = Logger.getAnonymousLogger();
+        target.setUseParentHandlers(false);
+        target.addHandler(new Handler() {
+
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.WARNING) {
+                    delivered.addAndGet(((Number) record.getParameters()[0]).longValue());
+                } else {
+                    delivered.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+
+        });
+        DebugLogger.start(target, 2);
+    }
+
+    @After
+    public void tearDown() {
+        DebugLogger.stop();
+    }
+
+    @Test
+    public void burstsAreAllAccountedFor() throws InterruptedException {
+        final CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[DebugLoggerTest.THREADS];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+
+                public void run() {
+                    try {
+                        go.await();
+                        for (int b = 0; b < DebugLoggerTest.BURSTS; b++) {
+                            for (int i = 0; i < DebugLoggerTest.PER_BURST; i++) {
+                                DebugLogger.log(2, "record {0}", "x");
+                            }
+                            // leave the appender time to park between bursts
+                            Thread.sleep(1);
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+            });
+            threads[t].start();
+        }
+        go.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        long total = (long) DebugLoggerTest.THREADS * DebugLoggerTest.BURSTS * DebugLoggerTest.PER_BURST;
+        this.awaitDelivered(total);
+        assertEquals(total, this.delivered.get());
+    }
+
+    @Test
+    public void parkedAppenderWakesForRecord() throws InterruptedException {
+        Thread appender = DebugLoggerTest.findAppender();
+        long deadline = System.nanoTime() + 5000000000L;
+        while (appender.getState() != Thread.State.WAITING) {
+            assertTrue("appender never parked", System.nanoTime() - deadline < 0);
+            Thread.sleep(1);
+        }
+        DebugLogger.log(1, "wake up");
+        this.awaitDelivered(1);
+        DebugLogger.log(3, "above the level");
+        Thread.sleep(50);
+        assertEquals(1, this.delivered.get());
+    }
+
+    private void awaitDelivered(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + 10000000000L;
+        while (this.delivered.get() < count && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, this.delivered.get());
+    }
+
+    private static Thread findAppender() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals("PluginTemplate-DebugLog") && t.isAlive()) {
+                return t;
+            }
+        }
+        throw new AssertionError("appender thread is not running");
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the slot sequencing of {@link RingBuffer}, alone and under
+ * concurrent producers
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class RingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 200000;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePowerOfTwo() {
+        new RingBuffer<Integer>(6);
+    }
+
+    @Test
+    public void fullBufferRejectsOffers() {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void wrapsAroundInOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 100; round++) {
+            int fill = round % 4 + 1;
+            for (int i = 0; i < fill; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            assertFalse(buffer.isEmpty());
+            for (int i = 0; i < fill; i++) {
+                assertEquals(Integer.valueOf(expected++), buffer.poll());
+            }
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+        final RingBuffer<long[]> buffer = new RingBuffer<long[]>(64);
+        final CountDownLatch go = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int p = 0; p < RingBufferTest.PRODUCERS; p++) {
+            final int id = p;
+            Thread t = new Thread(new Runnable() {
+
+                public void run() {
+                    try {
+                        go.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < RingBufferTest.PER_PRODUCER; i++) {
+                        long[] element = {id, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+
+            });
+            t.start();
+            producers.add(t);
+        }
+        go.countDown();
+        int[] next = new int[RingBufferTest.PRODUCERS];
+        long remaining = (long) RingBufferTest.PRODUCERS * RingBufferTest.PER_PRODUCER;
+        long deadline = System.nanoTime() + 60000000000L;
+        while (remaining > 0) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                assertTrue("timed out with " + remaining + " elements missing", System.nanoTime() - deadline < 0);
+                Thread.yield();
+                continue;
+            }
+            int id = (int) element[0];
+            // each producer's elements arrive once, in the order offered
+            assertEquals("producer " + id, next[id], element[1]);
+            next[id]++;
+            remaining--;
+        }
+        for (Thread t : producers) {
+            t.join();
+        }
+        assertNull(buffer.poll());
+        for (int count : next) {
+            assertEquals(RingBufferTest.PER_PRODUCER, count);
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2013 CodeLanx , All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2014 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * along with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.plugintemplate.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the bucketing and percentile math of {@link LatencyHistogram}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.99));
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 0; i < 16; i++) {
+            histogram.record(i);
+        }
+        assertEquals(16, histogram.getCount());
+        assertEquals(7, histogram.getPercentile(0.5));
+        assertEquals(15, histogram.getPercentile(1.0));
+        assertEquals(0, histogram.getPercentile(0.0));
+    }
+
+    @Test
+    public void percentilesAreWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int count = 100000;
+        for (long i = 1; i <= count; i++) {
+            histogram.record(i * 1000);
+        }
+        double[] percentiles = {0.5, 0.9, 0.99, 0.999};
+        for (double p : percentiles) {
+            long exact = (long) Math.ceil(p * count) * 1000;
+            long reported = histogram.getPercentile(p);
+            assertTrue(p + ": " + reported + " < " + exact, reported >= exact);
+            assertTrue(p + ": " + reported + " too far above " + exact, reported <= exact * 1.125);
+        }
+    }
+
+    @Test
+    public void percentileIsCappedByMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getMax());
+        assertEquals(1000, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void extremesAreRecorded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(1.0));
+    }
+
+    @Test
+    public void meanAndResetTrackEveryValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(300);
+        assertEquals(200.0, histogram.getMean(), 0.0);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+}